@@ -1,290 +1,613 @@
-import java.util.Comparator;
-import java.util.PriorityQueue;
-import java.util.HashSet;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import jdk.jfr.FlightRecorder;
 
 /**
  * This class uses the A* search algorithm to solve and print the solution for any
- * solvable 8-puzzle. A priority queue represents the frontier which uses the Comparator
- * class to sort the BoardNode objects by f(n). A hash set represents the explored set
- * containing nodes we already visited. This class also keeps track of the number of
- * nodes generated in our tree (graph search is used). Two different heuristic functions
- * can be used for this A* search:
- *    (1) h1 = the number of misplaced tiles
+ * solvable sliding puzzle whose board fits in a long (up to the 4x4 15-puzzle, see
+ * BoardSize). The frontier keeps at most one node per state and is either an indexed
+ * heap which uses the Comparator class to sort the BoardNode objects by f(n) (the
+ * default) or a bucket queue indexed by f(n). A StateSet (a bitset of ranked states for
+ * boards up to 3x3, a primitive hash set otherwise) represents the explored set
+ * containing the packed states we already visited. This class also keeps track of the
+ * number of nodes generated in our tree (graph search is used). Each search carries its
+ * own heuristic function (see Heuristic), which can be any of:
+ *    (1) h1 = the number of misplaced tiles (MisplacedTiles)
  *    (2) h2 = the sum of the distances of the tiles from their goal positions (Manhattan
- *             Distance)
+ *             Distance, ManhattanDistance)
+ *    (3) the Manhattan distance plus linear conflicts (LinearConflict)
+ *    (4) the walking distance (WalkingDistance)
+ *    (5) an additive pattern database (PatternDatabase)
+ *
+ * An AStarSearch only holds its configuration (board size, heuristic, and the kind of
+ * frontier), which never changes, so one instance can solve many puzzles on many
+ * threads at the same time. Everything that belongs to a single search is kept in a
+ * Workspace: each thread gets its own frontier and explored set the first time it
+ * searches and reuses them (cleared) for its later searches, and the result of every
+ * search is returned as a new SearchResult. A SolutionCache can be put in front of the
+ * search (see withCache) so that puzzles that were already solved are not searched
+ * again.
+ *
+ * Every result carries the statistics of its search (see SearchMetrics), and each
+ * search is also recorded as a SearchEvent once a Java Flight Recorder recording has
+ * been started.
+ *
+ * When a near-optimal solution is good enough, weighted A* (see withWeight) orders the
+ * frontier by f(n) = g(n) + w * h(n) instead, which finds a solution with at most w
+ * times the optimal number of moves while expanding far fewer nodes. Anytime A* (ARA*,
+ * see findAnytimeSolution) starts with a high weight to find a first solution quickly,
+ * then keeps lowering the weight and improving the solution, reusing the work of the
+ * earlier searches, until it is optimal or a deadline passes.
+ *
+ * A search can also be given a budget (see withBudget and SearchBudget) that limits its
+ * time, the nodes it generates, and its memory, so that one hard or unsolvable puzzle
+ * cannot keep a thread busy for long. A search that runs out of its budget, or whose
+ * thread is interrupted, stops and returns the path to the node it found closest to
+ * the goal instead of a solution (see SearchResult.getStatus). The interrupt flag is
+ * left set for the caller.
  */
 public class AStarSearch {
-    /* Contains the root node */
-    private BoardNode root;
-    /* Keeps track of the nodes generated */
-    private int size;
-
-    /* Used to compare nodes by f(n) */
-    private Comparator<BoardNode> fCompare;
-    /* Used for the frontier which contains nodes ordered by their f(n) value */
-    private PriorityQueue<BoardNode> frontier;
-    /* Used for the explored set which contains already visited nodes */
-    private HashSet<String> explored;
-    /* Contains the solution path in the tree */
-    private ArrayList<BoardNode> solution;
-
-    /* Goal key used to check if we reached the goal state */
-    private final String GOAL_KEY = "012345678";
-    /* Used for the calculation of H2 */
-    private static ArrayList<int[]> goalH2;
-
-    /* If this flag is false, we use H1; if it's true, we use H2 */
-    private static boolean hFlag;
-
-    /* Constructor that initializes the components of this search */
-    public AStarSearch( int[][] node ){
-        root = new BoardNode( node );
-        size = 0;
-        fCompare = new FCompare();
-        frontier = new PriorityQueue<>( fCompare );
-        explored = new HashSet<>();
-        solution = new ArrayList<>();
-        goalH2 = new ArrayList<>();
-        hFlag = false;
+    /* Contains the size of the board */
+    private final BoardSize boardSize;
+    /* Heuristic function used to find h(n) */
+    private final Heuristic heuristic;
+    /* Creates the frontier of each thread */
+    private final Supplier<Frontier> frontiers;
+    /* Contains puzzles that were already solved (null if there is none) */
+    private final SolutionCache cache;
+    /* If this flag is true, the time spent in the heuristic is measured */
+    private final boolean timed;
+    /* Weight of h(n) in f(n) (1 for A*) */
+    private final double weight;
+    /* Limits of every search */
+    private final SearchBudget budget;
+
+    /* Amount the weight is lowered by after every search of findAnytimeSolution */
+    private static final double WEIGHT_STEP = 0.5;
+    /* Number of nodes expanded between looks at the clock and the interrupt flag */
+    private static final int CLOCK_INTERVAL = 256;
+
+    /* Goal key (packed goal state) used to check if we reached the goal state */
+    private final long GOAL_KEY;
+
+    /* Frontier and explored set of each thread that searched with this instance */
+    private final ThreadLocal<Workspace> workspaces;
+
+    /* Constructor for puzzles of the given size using the given heuristic and an
+     * indexed heap as the frontier */
+    public AStarSearch( BoardSize bs, Heuristic h ){
+        this( bs, h, () -> new IndexedHeap( new FCompare() ) );
+    }
+
+    /* Constructor for puzzles of the given size using the given heuristic and the
+     * frontiers made by the given Supplier (for example BucketQueue::new) */
+    public AStarSearch( BoardSize bs, Heuristic h, Supplier<Frontier> f ){
+        this( bs, h, f, null, false, 1, SearchBudget.UNLIMITED );
+    }
+
+    /* Constructor used by withCache, withHeuristicTiming, withWeight, and withBudget */
+    private AStarSearch( BoardSize bs, Heuristic h, Supplier<Frontier> f, SolutionCache c, boolean t, double w, SearchBudget b ){
+        if( !bs.isPackable() ){
+            throw new IllegalArgumentException( "Board is too large: " + bs.getWidth() );
+        }
+        if( c != null && c.getBoardSize().getWidth() != bs.getWidth() ){
+            throw new IllegalArgumentException( "Cache width " + c.getBoardSize().getWidth() + " does not match " + bs.getWidth() );
+        }
+        boardSize = bs;
+        heuristic = h;
+        frontiers = f;
+        cache = c;
+        timed = t;
+        weight = w;
+        budget = b;
+        GOAL_KEY = boardSize.getGoal();
+        workspaces = ThreadLocal.withInitial( () -> new Workspace( frontiers.get(), boardSize ) );
     }
 
     /**
-     * Returns the number of nodes generated in the search tree.
+     * Returns the size of the puzzles solved by this search.
      */
-    public int getSize(){
-        return size;
+    public BoardSize getBoardSize(){
+        return boardSize;
     }
 
     /**
-     * Returns goalH2 which is used by the BoardNode class to calculate the Manhattan
-     * distance for each node when using h2.
+     * Returns the heuristic used by this search.
      */
-    public static ArrayList<int[]> getGoalH2(){
-        return goalH2;
+    public Heuristic getHeuristic(){
+        return heuristic;
     }
 
     /**
-     * Returns false if we are using h1 and true if we are using h2.
+     * Returns the weight of h(n) in f(n) (1 unless this is weighted A*, see withWeight).
      */
-    public static boolean getHFlag(){
-        return hFlag;
+    public double getWeight(){
+        return weight;
     }
 
     /**
-     * Used to switch between the two heuristics.
+     * Returns the budget of every search (SearchBudget.UNLIMITED unless one was given,
+     * see withBudget).
      */
-    public void setHFlag( boolean b ){
-        hFlag = b;
+    public SearchBudget getBudget(){
+        return budget;
     }
 
     /**
-     * Represents using the A* search algorithm to find a solution for any solvable
-     * 8-puzzle. First, all fields are cleared to avoid any leftover information. Then,
-     * we check which heuristic is going to be used. Finally, the A* search algorithm is
-     * used to find and print the solution.
+     * Returns the cache used by this search (null if there is none).
      */
-    public void findSolution(){
-        clearBoard();
-        frontier.add( root );
-        size++;
+    public SolutionCache getCache(){
+        return cache;
+    }
 
-        if( hFlag ){
-            setupH2();
-        }
+    /**
+     * Returns a search with the same configuration that looks up every puzzle in the
+     * given cache first and adds every puzzle it solves to it. The cache must be for
+     * the same board size.
+     */
+    public AStarSearch withCache( SolutionCache c ){
+        return new AStarSearch( boardSize, heuristic, frontiers, c, timed, weight, budget );
+    }
 
-        while( !frontier.isEmpty() ){
-            String key = createKey( frontier.peek().getBoard() );
-            if( key.equals( GOAL_KEY ) ){
-                BoardNode solved = frontier.peek();
-                findPath( solved );
-                frontier.clear();
-            }
-            else{
-                BoardNode temp = frontier.remove();
-                explored.add( createKey(temp.getBoard()) );
-                findChildren( temp );
-            }
-        }
+    /**
+     * Returns a search with the same configuration that also measures the time spent
+     * in the heuristic (see SearchMetrics). Reading the clock around every call of the
+     * heuristic makes the search slower, so it is off by default.
+     */
+    public AStarSearch withHeuristicTiming(){
+        return new AStarSearch( boardSize, heuristic, frontiers, cache, true, weight, budget );
     }
 
     /**
-     * Generates the possible children (next moves) of the current node. Nodes that are
-     * in the explored set are not generated.
+     * Returns a search with the same configuration that runs weighted A* with the given
+     * weight (at least 1): the frontier is ordered by g(n) + w * h(n), and every solution
+     * has at most w times the moves of an optimal one (see SearchResult.getBound). The
+     * frontier is an indexed heap, since a bucket queue can only order the nodes by the
+     * unweighted f(n).
      */
-    public void findChildren( BoardNode cur ){
-        int row = 0;
-        int col = 0;
-        int[][] curBoard = cur.getBoard();
-        /* A copy of the current node is created so that we can edit it */
-        int[][] copy = createCopy( curBoard );
-
-        /* Locates the space in the current node (board) */
-        for( int i = 0; i < 3; i++ ){
-            for( int j = 0; j < 3; j++ ){
-                if( copy[i][j] == 0 ){
-                    row = i;
-                    col = j;
-                }
-            }
+    public AStarSearch withWeight( double w ){
+        if( !( w >= 1 ) ){
+            throw new IllegalArgumentException( "Weight must be at least 1: " + w );
         }
+        return new AStarSearch( boardSize, heuristic, () -> new IndexedHeap( new FCompare( w ) ), cache, timed, w, budget );
+    }
 
-        /* The following four conditional statements use the space and generates the
-         * next possible moves for the current node.
-         */
-        if( row < 2 ){
-            down( copy, row, col );
-            BoardNode temp = new BoardNode( copy, cur );
-            if( !inExplored( createKey( temp.getBoard() ))){
-                frontier.add( temp );
-                size++;
-            }
-        }
+    /**
+     * Returns a search with the same configuration whose searches are limited by the
+     * given budget.
+     */
+    public AStarSearch withBudget( SearchBudget b ){
+        return new AStarSearch( boardSize, heuristic, frontiers, cache, timed, weight, b );
+    }
 
-        if( row > 0 ){
-            copy = createCopy( curBoard );
-            up( copy, row, col );
-            BoardNode temp = new BoardNode( copy, cur );
-            if( !inExplored( createKey( temp.getBoard() ))){
-                frontier.add( temp );
-                size++;
-            }
+    /**
+     * Solves the given puzzle, which must have the same width as this search.
+     */
+    public SearchResult findSolution( int[][] puzzle ){
+        if( puzzle.length != boardSize.getWidth() ){
+            throw new IllegalArgumentException( "Puzzle width " + puzzle.length + " does not match " + boardSize.getWidth() );
         }
+        return findSolution( BoardState.pack( puzzle ) );
+    }
 
-        if( col < 2 ){
-            copy = createCopy( curBoard );
-            right( copy, row, col );
-            BoardNode temp = new BoardNode( copy, cur );
-            if( !inExplored( createKey( temp.getBoard() ))){
-                frontier.add( temp );
-                size++;
-            }
+    /**
+     * Represents using the A* search algorithm to find a solution for any solvable
+     * puzzle, given as a packed state. The workspace of the calling thread is cleared to
+     * avoid any leftover information, and the A* search algorithm is used to find the
+     * solution. The returned result is not solved if the puzzle has no solution.
+     */
+    public SearchResult findSolution( long start ){
+        if( cache == null ){
+            return search( start );
         }
-
-        if( col > 0 ){
-            copy = createCopy( curBoard );
-            left( copy, row, col );
-            BoardNode temp = new BoardNode( copy, cur );
-            if( !inExplored( createKey( temp.getBoard() ))){
-                frontier.add( temp );
-                size++;
-            }
+        SearchResult result = cache.get( start );
+        if( result == null ){
+            result = search( start );
+            cache.put( result );
         }
+        return result;
     }
 
     /**
-     * Moves the empty space down on the given board.
+     * Runs the A* search from the given packed state.
      */
-    private void down( int[][] arr, int row, int col ){
-        arr[row][col] = arr[row+1][col];
-        arr[row+1][col] = 0;
+    private SearchResult search( long start ){
+        SearchEvent event = beginEvent();
+        long begin = System.nanoTime();
+        Workspace w = workspaces.get();
+        w.clear();
+        TimedHeuristic clock = timed ? new TimedHeuristic( heuristic ) : null;
+        w.heuristic = timed ? clock : heuristic;
+        try {
+            BoardNode root = new BoardNode( start, BoardState.findBlank( start, boardSize.getCells() ), boardSize, w.heuristic );
+            w.frontier.offer( root );
+            w.generated = 1;
+            w.peak = 1;
+
+            BoardNode solved = null;
+            BoardNode closest = root;
+            SearchResult.Status stopped = null;
+            while( !w.frontier.isEmpty() ){
+                if( w.frontier.peek().getState() == GOAL_KEY ){
+                    solved = w.frontier.peek();
+                    break;
+                }
+                stopped = check( w, w.frontier.size(), begin );
+                if( stopped != null ){
+                    break;
+                }
+                BoardNode temp = w.frontier.poll();
+                if( temp.getH() < closest.getH() ){
+                    closest = temp;
+                }
+                w.explored.add( temp.getState() );
+                w.expanded++;
+                findChildren( w, temp );
+                if( w.frontier.size() > w.peak ){
+                    w.peak = w.frontier.size();
+                }
+            }
+
+            SearchMetrics metrics = metrics( w, solved == null ? -1 : solved.getG(), begin, clock );
+            SearchResult result = stopped != null ? new SearchResult( closest, stopped, metrics, boardSize.getWidth() )
+                    : new SearchResult( solved, metrics, boardSize.getWidth(), weight );
+            commitEvent( event, result, metrics );
+            return result;
+        }
+        finally {
+            /* Drops the nodes so they can be garbage collected between searches */
+            w.frontier.clear();
+        }
     }
 
     /**
-     * Moves the empty space up on the given board.
+     * Solves the given packed state with anytime repairing A* (ARA*), starting with the
+     * given weight (at least 1), and returns the best solution found when it is known to
+     * be optimal or the deadline (a value of System.nanoTime) passes. The deadline is
+     * first looked at after CLOCK_INTERVAL nodes have been expanded, so time spent before
+     * the search began (or a deadline that has already passed) never stops it before it
+     * has searched at all. The result is not solved if no solution was found by then (or
+     * within the budget of this search) or the puzzle has no solution.
      */
-    private void up( int[][] arr, int row, int col ){
-        arr[row][col] = arr[row-1][col];
-        arr[row-1][col] = 0;
+    public SearchResult findAnytimeSolution( long start, double w, long deadline ){
+        return findAnytimeSolution( start, w, deadline, null );
     }
 
     /**
-     * Moves the empty space right on the given board.
+     * Solves the given packed state like findAnytimeSolution above, also passing every
+     * improved solution to the given Consumer (if it is not null) as soon as it is found,
+     * along with its bound (see SearchResult.getBound).
+     *
+     * Each search expands the nodes by g(n) + w * h(n) and stops once no node in the
+     * frontier can lead to a better solution at that weight, so its solution has at most
+     * w times the optimal number of moves. The weight is then lowered and the search goes
+     * on from the same frontier: states that were reached more cheaply after they were
+     * explored are put back into it, and the explored set is cleared. Nodes that cannot
+     * lead to a shorter solution than the best one found (g(n) + h(n) is not lower) are
+     * dropped. The bound of the best solution is its length divided by the lowest
+     * g(n) + h(n) in the frontier, or the weight of the last finished search if that is
+     * lower.
      */
-    private void right( int[][] arr, int row, int col ){
-        arr[row][col] = arr[row][col+1];
-        arr[row][col+1] = 0;
+    public SearchResult findAnytimeSolution( long start, double w, long deadline, Consumer<SearchResult> improved ){
+        if( !( w >= 1 ) ){
+            throw new IllegalArgumentException( "Weight must be at least 1: " + w );
+        }
+        if( cache != null ){
+            SearchResult result = cache.get( start );
+            if( result != null ){
+                return result;
+            }
+        }
+
+        SearchEvent event = beginEvent();
+        long begin = System.nanoTime();
+        Workspace ws = workspaces.get();
+        ws.clear();
+        TimedHeuristic clock = timed ? new TimedHeuristic( heuristic ) : null;
+        ws.heuristic = timed ? clock : heuristic;
+
+        /* Lowest g(n) found for every state reached */
+        LongIntHashMap best = new LongIntHashMap();
+        /* Nodes whose state was reached more cheaply after it was explored */
+        List<BoardNode> inconsistent = new ArrayList<>();
+        IndexedHeap open = new IndexedHeap( new FCompare( w ) );
+        BoardNode closest = new BoardNode( start, BoardState.findBlank( start, boardSize.getCells() ), boardSize, ws.heuristic );
+        open.offer( closest );
+        best.put( start, 0 );
+        ws.generated = 1;
+        ws.peak = 1;
+
+        BoardNode goal = start == GOAL_KEY ? open.peek() : null;
+        int cost = goal == null ? Integer.MAX_VALUE : 0;
+        double bound = Double.POSITIVE_INFINITY;
+        SearchResult result = null;
+        SearchResult.Status stopped = null;
+        while( true ){
+            /* Improves the solution at the current weight */
+            while( !open.isEmpty() ){
+                BoardNode cur = open.peek();
+                if( cur.getG() + w * cur.getH() >= cost ){
+                    break;
+                }
+                stopped = check( ws, open.size() + inconsistent.size(), begin );
+                if( stopped == null && ws.expanded > 0 && ws.expanded % CLOCK_INTERVAL == 0 && System.nanoTime() - deadline >= 0 ){
+                    stopped = SearchResult.Status.TIME_LIMIT;
+                }
+                if( stopped != null ){
+                    break;
+                }
+                open.poll();
+                if( cur.getH() < closest.getH() ){
+                    closest = cur;
+                }
+                ws.explored.add( cur.getState() );
+                ws.expanded++;
+                for( int to : boardSize.getNeighbors( cur.getBlank() ) ){
+                    long child = BoardState.move( cur.getState(), cur.getBlank(), to );
+                    int g = cur.getG() + 1;
+                    int known = best.get( child, -1 );
+                    if( known >= 0 && known <= g ){
+                        ws.duplicates++;
+                        continue;
+                    }
+                    BoardNode node = new BoardNode( child, to, cur, ws.heuristic );
+                    if( g + node.getH() >= cost ){
+                        ws.duplicates++;
+                        continue;
+                    }
+                    best.put( child, g );
+                    ws.generated++;
+                    if( child == GOAL_KEY ){
+                        goal = node;
+                        cost = g;
+                    }
+                    else if( ws.explored.contains( child ) ){
+                        inconsistent.add( node );
+                    }
+                    else{
+                        open.offer( node );
+                    }
+                }
+                if( open.size() > ws.peak ){
+                    ws.peak = open.size();
+                }
+            }
+
+            /* Finds the bound from the lowest g(n) + h(n) of the nodes still waiting */
+            int lowest = cost;
+            for( BoardNode node : inconsistent ){
+                if( best.get( node.getState(), -1 ) == node.getG() ){
+                    lowest = Math.min( lowest, node.getG() + node.getH() );
+                }
+            }
+            for( int i = 0; i < open.size(); i++ ){
+                BoardNode node = open.get( i );
+                lowest = Math.min( lowest, node.getG() + node.getH() );
+            }
+            if( goal != null ){
+                bound = Math.min( stopped != null ? bound : w, lowest >= cost ? 1 : (double) cost / lowest );
+                if( result == null || result.getLength() != cost || result.getBound() != bound ){
+                    result = new SearchResult( goal, metrics( ws, cost, begin, clock ), boardSize.getWidth(), bound );
+                    if( improved != null ){
+                        improved.accept( result );
+                    }
+                }
+            }
+            if( stopped != null || bound <= 1 || ( open.isEmpty() && inconsistent.isEmpty() ) ){
+                break;
+            }
+
+            /* Lowers the weight, which changes the order of the frontier, and adds the
+             * inconsistent nodes back to it */
+            w = Math.max( 1, w - WEIGHT_STEP );
+            IndexedHeap next = new IndexedHeap( new FCompare( w ) );
+            for( int i = 0; i < open.size(); i++ ){
+                BoardNode node = open.get( i );
+                if( node.getG() + node.getH() < cost ){
+                    next.offer( node );
+                }
+            }
+            for( BoardNode node : inconsistent ){
+                if( best.get( node.getState(), -1 ) == node.getG() && node.getG() + node.getH() < cost ){
+                    next.offer( node );
+                }
+            }
+            inconsistent.clear();
+            ws.explored.clear();
+            open = next;
+        }
+
+        SearchMetrics metrics = metrics( ws, goal == null ? -1 : cost, begin, clock );
+        if( goal == null && stopped != null ){
+            result = new SearchResult( closest, stopped, metrics, boardSize.getWidth() );
+        }
+        else{
+            result = new SearchResult( goal, metrics, boardSize.getWidth(), goal == null ? Double.POSITIVE_INFINITY : bound );
+        }
+        commitEvent( event, result, metrics );
+        if( cache != null ){
+            cache.put( result );
+        }
+        return result;
     }
 
     /**
-     * Moves the empty space left on the given board.
+     * Returns a new SearchEvent that has begun, or null if Java Flight Recorder has not
+     * been set up. The first SearchEvent created sets it up, which takes a few hundred
+     * milliseconds, so no event is created until a recording has been started.
      */
-    private void left( int[][] arr, int row, int col ){
-        arr[row][col] = arr[row][col-1];
-        arr[row][col-1] = 0;
+    private static SearchEvent beginEvent(){
+        if( !FlightRecorder.isInitialized() ){
+            return null;
+        }
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        return event;
     }
 
     /**
-     * When using h2, this method is used to find and initialize the goal positions for
-     * each number.
+     * Records the given result and statistics in the given event (if it is not null) when
+     * a running recording has it enabled.
      */
-    private void setupH2(){
-        for( int i = 0; i < 3; i++ ){
-            for( int j = 0; j < 3; j++ ){
-                int[] arr = new int[2];
-                arr[0] = i;
-                arr[1] = j;
-                goalH2.add( arr );
-            }
+    private void commitEvent( SearchEvent event, SearchResult result, SearchMetrics metrics ){
+        if( event != null && event.shouldCommit() ){
+            event.set( heuristic.getName(), result.getStatus(), metrics );
+            event.commit();
         }
     }
 
     /**
-     * Creates and returns a copy of the given board.
+     * Returns the reason the search in the given workspace, which began at the given time
+     * and keeps the given number of nodes besides its explored set, must stop, or null
+     * if it can go on. The clock and the interrupt flag are only looked at every
+     * CLOCK_INTERVAL nodes expanded.
      */
-    private int[][] createCopy( int[][] arr ){
-        int[][] copy = new int[3][3];
-        for( int i = 0; i < 3; i++ ){
-            for( int j = 0; j < 3; j++ ){
-                copy[i][j] = arr[i][j];
-            }
+    private SearchResult.Status check( Workspace w, int waiting, long begin ){
+        boolean checkTime = w.expanded % CLOCK_INTERVAL == 0;
+        if( checkTime && Thread.currentThread().isInterrupted() ){
+            return SearchResult.Status.INTERRUPTED;
         }
-        return copy;
+        return budget.check( begin, w.generated, w.explored.size() + waiting, checkTime );
     }
 
     /**
-     * Checks if the given String is in the explored set (thus checking if the node has
-     * already been explored. Returns true if it is and false otherwise.
+     * Returns the statistics of the search in the given workspace so far, for a solution
+     * with the given number of moves.
      */
-    private boolean inExplored( String key ){
-        return explored.contains(key);
+    private SearchMetrics metrics( Workspace w, int depth, long begin, TimedHeuristic clock ){
+        return new SearchMetrics( w.expanded, w.generated, w.duplicates, w.peak, w.explored.size(),
+                depth, System.nanoTime() - begin, clock != null ? clock.time : 0 );
     }
 
     /**
-     * Uses the given array and creates a String of its contents (stored as a key). This
-     * created key is returned.
+     * Generates the possible children (next moves) of the current node. Nodes that are
+     * in the explored set are not generated, and nodes whose state is already in the
+     * frontier are only kept if they reach that state with a lower g(n).
      */
-    private String createKey( int[][] arr ){
-        String key = "";
-        for( int i = 0; i < 3; i++ ){
-            for( int j = 0; j < 3; j++ ){
-                key += arr[i][j];
-            }
+    private void findChildren( Workspace w, BoardNode cur ){
+        int width = boardSize.getWidth();
+        int blank = cur.getBlank();
+        int row = blank / width;
+        int col = blank % width;
+
+        /* The following four conditional statements move the space and generate the
+         * next possible moves for the current node.
+         */
+        if( row < width - 1 ){
+            addChild( w, cur, blank + width );
+        }
+
+        if( row > 0 ){
+            addChild( w, cur, blank - width );
+        }
+
+        if( col < width - 1 ){
+            addChild( w, cur, blank + 1 );
+        }
+
+        if( col > 0 ){
+            addChild( w, cur, blank - 1 );
         }
-        return key;
     }
 
     /**
-     * Clears all fields to avoid any leftover information from a previous puzzle.
+     * Adds the child formed by moving the space to the given cell to the frontier unless
+     * it was already explored or the frontier already reaches it at the same or a lower
+     * cost (then it is counted as a duplicate).
      */
-    private void clearBoard(){
-        frontier.clear();
-        explored.clear();
-        solution.clear();
-        size = 0;
+    private void addChild( Workspace w, BoardNode cur, int target ){
+        long child = BoardState.move( cur.getState(), cur.getBlank(), target );
+        if( !w.explored.contains( child ) && w.frontier.offer( new BoardNode( child, target, cur, w.heuristic ) ) ){
+            w.generated++;
+        }
+        else{
+            w.duplicates++;
+        }
     }
 
     /**
-     * Traces the solution path from the given node to the root.
+     * This class holds the frontier, the explored set, and the statistics of one thread.
+     * They are only used by that thread, so they do not need to be synchronized.
      */
-    private void findPath( BoardNode node ){
-        BoardNode step = node;
-        while( step != null ){
-            solution.add( step );
-            step = step.getParent();
+    private static class Workspace {
+        /* Contains nodes ordered by their f(n) value */
+        private final Frontier frontier;
+        /* Contains the packed states of visited nodes */
+        private final StateSet explored;
+        /* Heuristic used by the current search (the configured one, or it wrapped in a
+         * TimedHeuristic) */
+        private Heuristic heuristic;
+        /* Statistics of the current search (see SearchMetrics) */
+        private int expanded;
+        private int generated;
+        private int duplicates;
+        private int peak;
+
+        private Workspace( Frontier f, BoardSize bs ){
+            frontier = f;
+            explored = StateSet.forSize( bs );
+        }
+
+        /**
+         * Clears the frontier, the explored set, and the statistics to avoid any
+         * leftover information from a previous puzzle.
+         */
+        private void clear(){
+            frontier.clear();
+            explored.clear();
+            expanded = 0;
+            generated = 0;
+            duplicates = 0;
+            peak = 0;
         }
     }
 
     /**
-     * Saves the solution path to a String and returns it.
+     * This class adds up the time spent in the heuristic it wraps. It is only used by
+     * one search, so it does not need to be synchronized.
      */
-    public String toString(){
-        String str = "";
-        Collections.reverse( solution );
-        for( BoardNode n : solution ){
-            str += n.toString();
+    private static class TimedHeuristic implements Heuristic {
+        /* Heuristic that is measured */
+        private final Heuristic heuristic;
+        /* Time spent in the heuristic in nanoseconds */
+        private long time;
+
+        private TimedHeuristic( Heuristic h ){
+            heuristic = h;
+        }
+
+        public String getName(){
+            return heuristic.getName();
+        }
+
+        public int estimate( long state ){
+            long begin = System.nanoTime();
+            int h = heuristic.estimate( state );
+            time += System.nanoTime() - begin;
+            return h;
+        }
+
+        public int estimate( int[] tiles ){
+            long begin = System.nanoTime();
+            int h = heuristic.estimate( tiles );
+            time += System.nanoTime() - begin;
+            return h;
+        }
+
+        public int update( int h, long state, int tile, int from, int to ){
+            long begin = System.nanoTime();
+            int next = heuristic.update( h, state, tile, from, to );
+            time += System.nanoTime() - begin;
+            return next;
+        }
+
+        public int update( int h, int[] tiles, int tile, int from, int to ){
+            long begin = System.nanoTime();
+            int next = heuristic.update( h, tiles, tile, from, to );
+            time += System.nanoTime() - begin;
+            return next;
         }
-        return str;
     }
 }
@@ -0,0 +1,414 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * This class solves batches of puzzles without any user interaction. The puzzles are
+ * read from a file or from standard input, one puzzle per line with its tiles listed row
+ * by row (separated by spaces or commas, 0 for the space). Lines that are empty or start
+ * with # are skipped, and every puzzle in a batch must have the same width.
+ *
+ * The puzzles are read in chunks, and each chunk is split into small tasks that run on a
+ * ForkJoinPool, so idle threads steal work from busy ones and hard puzzles do not hold
+ * up the rest. All tasks share one AStarSearch (each thread reuses its own frontier and
+ * explored set, see AStarSearch), or one DistanceTable for small boards. The results
+ * are written in the same order as the puzzles, one line per puzzle:
+ *    <number> <moves> <nodes generated> <time in nanoseconds> [<solution>]
+ * where moves is -1 if the puzzle is not solvable (or -2 if the search ran out of its
+ * budget, see SearchBudget) and the solution (only written if it is asked for) lists
+ * the moves of the space as letters (see SearchResult.getMoves).
+ */
+public class BatchSolver {
+    /* Number of puzzles read and solved at a time */
+    private static final int CHUNK = 4096;
+    /* Largest number of puzzles solved by a task without splitting it */
+    private static final int THRESHOLD = 8;
+
+    /* Contains the size of the board */
+    private final BoardSize boardSize;
+    /* Used to solve every puzzle */
+    private final LongFunction<SearchResult> solver;
+    /* Runs the tasks */
+    private final ForkJoinPool pool;
+
+    /* Constructor that solves puzzles with the given search on the given pool */
+    public BatchSolver( AStarSearch s, ForkJoinPool p ){
+        this( s.getBoardSize(), s::findSolution, p );
+    }
+
+    /* Constructor that solves puzzles with the given bidirectional search on the given
+     * pool */
+    public BatchSolver( BidirectionalSearch s, ForkJoinPool p ){
+        this( s.getBoardSize(), s::findSolution, p );
+    }
+
+    /* Constructor that solves puzzles with the given distance table on the given pool */
+    public BatchSolver( DistanceTable t, ForkJoinPool p ){
+        this( t.getBoardSize(), t::findSolution, p );
+    }
+
+    /* Constructor that solves puzzles of the given size with the given function, which
+     * must be safe to call from many threads at once (for example anytime A* with a
+     * deadline for every puzzle, see AStarSearch.findAnytimeSolution) */
+    public BatchSolver( BoardSize bs, LongFunction<SearchResult> f, ForkJoinPool p ){
+        boardSize = bs;
+        solver = f;
+        pool = p;
+    }
+
+    /**
+     * Solves the given packed puzzles and returns their results in the same order.
+     */
+    public Result[] solve( long[] states ){
+        Result[] results = new Result[states.length];
+        pool.invoke( new SolveTask( states, results, 0, states.length ) );
+        return results;
+    }
+
+    /**
+     * Solves every puzzle read from the given reader and writes the results to the given
+     * writer, including the moves of each solution if moves is true. Returns the number
+     * of puzzles solved.
+     */
+    public long solve( BufferedReader in, PrintWriter out, boolean moves ) throws IOException {
+        long[] states = new long[CHUNK];
+        long count = 0;
+        int lineNumber = 0;
+        String line;
+        int n = 0;
+        while( true ){
+            line = in.readLine();
+            if( line != null ){
+                lineNumber++;
+                line = line.trim();
+                if( line.isEmpty() || line.startsWith( "#" ) ){
+                    continue;
+                }
+                states[n++] = parse( line, boardSize, lineNumber );
+            }
+            if( n == CHUNK || ( line == null && n > 0 ) ){
+                long[] chunk = n == CHUNK ? states : Arrays.copyOf( states, n );
+                Result[] results = solve( chunk );
+                for( int i = 0; i < n; i++ ){
+                    out.print( count + i + 1 );
+                    out.print( ' ' );
+                    results[i].write( out, moves );
+                    out.println();
+                }
+                out.flush();
+                count += n;
+                n = 0;
+            }
+            if( line == null ){
+                return count;
+            }
+        }
+    }
+
+    /**
+     * Parses a line that contains one puzzle and packs it into a long. Throws an
+     * IllegalArgumentException if it is not a valid puzzle of the given size.
+     */
+    public static long parse( String line, BoardSize bs, int lineNumber ){
+        String[] tokens = line.trim().split( "[\\s,]+" );
+        if( tokens.length != bs.getCells() ){
+            throw new IllegalArgumentException( "Line " + lineNumber + ": expected " + bs.getCells() + " tiles but found " + tokens.length );
+        }
+        long state = 0;
+        int seen = 0;
+        for( int i = 0; i < tokens.length; i++ ){
+            int tile;
+            try {
+                tile = Integer.parseInt( tokens[i] );
+            }
+            catch( NumberFormatException e ){
+                throw new IllegalArgumentException( "Line " + lineNumber + ": not a number: " + tokens[i] );
+            }
+            if( tile < 0 || tile >= bs.getCells() || ( seen & ( 1 << tile ) ) != 0 ){
+                throw new IllegalArgumentException( "Line " + lineNumber + ": invalid or repeated tile " + tile );
+            }
+            seen |= 1 << tile;
+            state |= ( (long) tile ) << ( i * 4 );
+        }
+        return state;
+    }
+
+    /**
+     * Runs a batch from the command line. The arguments are any of
+     *    -h <name>     heuristic (h1, h2, lc, wd, or pdb; h2 by default, see Heuristic)
+     *    -t <threads>  number of threads (the number of processors by default)
+     *    -c <states>   size of the SolutionCache (no cache by default)
+     *    -exact        solve with the DistanceTable instead of searching (up to 3x3)
+     *    -bidi         solve with BidirectionalSearch instead of AStarSearch
+     *    -w <weight>   solve with weighted A* (see AStarSearch.withWeight), or start
+     *                  anytime A* with this weight (3 by default)
+     *    -anytime <ms> solve with anytime A*, giving each puzzle this many milliseconds
+     *    -limit <ms>   stop the search of a puzzle after this many milliseconds
+     *    -nodes <n>    stop the search of a puzzle after generating this many nodes
+     *    -memory <mb>  stop the search of a puzzle once its nodes need about this many
+     *                  megabytes
+     *    -moves        also write the moves of every solution
+     *    -verify       check the length of every solution against the distance table
+     *                  (boards up to 3x3, see DistanceTable) and count those that are
+     *                  not optimal
+     *    <file>        file that contains the puzzles (standard input by default)
+     * A summary is printed to standard error when the batch is done.
+     */
+    public static void run( String[] args ){
+        String heuristic = "h2";
+        int threads = Runtime.getRuntime().availableProcessors();
+        int cacheSize = 0;
+        boolean exact = false;
+        boolean bidirectional = false;
+        boolean moves = false;
+        boolean verify = false;
+        double weight = 1;
+        long anytime = 0;
+        SearchBudget budget = SearchBudget.UNLIMITED;
+        String file = null;
+        for( int i = 0; i < args.length; i++ ){
+            if( args[i].equals( "-h" ) && i + 1 < args.length ){
+                heuristic = args[++i];
+            }
+            else if( args[i].equals( "-t" ) && i + 1 < args.length ){
+                threads = Integer.parseInt( args[++i] );
+            }
+            else if( args[i].equals( "-c" ) && i + 1 < args.length ){
+                cacheSize = Integer.parseInt( args[++i] );
+            }
+            else if( args[i].equals( "-exact" ) ){
+                exact = true;
+            }
+            else if( args[i].equals( "-bidi" ) ){
+                bidirectional = true;
+            }
+            else if( args[i].equals( "-moves" ) ){
+                moves = true;
+            }
+            else if( args[i].equals( "-verify" ) ){
+                verify = true;
+            }
+            else if( args[i].equals( "-w" ) && i + 1 < args.length ){
+                weight = Double.parseDouble( args[++i] );
+            }
+            else if( args[i].equals( "-anytime" ) && i + 1 < args.length ){
+                anytime = Long.parseLong( args[++i] ) * 1000000;
+            }
+            else if( args[i].equals( "-limit" ) && i + 1 < args.length ){
+                budget = budget.withTimeLimit( Long.parseLong( args[++i] ), TimeUnit.MILLISECONDS );
+            }
+            else if( args[i].equals( "-nodes" ) && i + 1 < args.length ){
+                budget = budget.withNodeLimit( Integer.parseInt( args[++i] ) );
+            }
+            else if( args[i].equals( "-memory" ) && i + 1 < args.length ){
+                budget = budget.withMemoryLimit( Long.parseLong( args[++i] ) << 20 );
+            }
+            else if( !args[i].equals( "-batch" ) ){
+                file = args[i];
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool( threads );
+        PrintWriter out = new PrintWriter( new BufferedWriter( new OutputStreamWriter( System.out ) ) );
+        try( BufferedReader in = new BufferedReader( file == null ? new InputStreamReader( System.in ) : new FileReader( file ) ) ){
+            /* The width of the batch is found from the first puzzle */
+            in.mark( 1 << 16 );
+            String first;
+            do {
+                first = in.readLine();
+            } while( first != null && ( first.trim().isEmpty() || first.trim().startsWith( "#" ) ) );
+            if( first == null ){
+                return;
+            }
+            in.reset();
+            int width = (int) Math.round( Math.sqrt( first.trim().split( "[\\s,]+" ).length ) );
+            BoardSize bs = new BoardSize( width );
+            SolutionCache cache = null;
+            BatchSolver solver;
+            if( exact ){
+                solver = new BatchSolver( DistanceTable.open( bs, new File( "." ) ), pool );
+            }
+            else if( bidirectional ){
+                solver = new BatchSolver( new BidirectionalSearch( bs, Heuristic.forName( heuristic, bs ) ), pool );
+            }
+            else{
+                AStarSearch search = new AStarSearch( bs, Heuristic.forName( heuristic, bs ) ).withBudget( budget );
+                if( cacheSize > 0 ){
+                    cache = new SolutionCache( bs, cacheSize );
+                    search = search.withCache( cache );
+                }
+                if( anytime > 0 ){
+                    AStarSearch s = search;
+                    double w = weight > 1 ? weight : 3;
+                    long limit = anytime;
+                    solver = new BatchSolver( bs, state -> s.findAnytimeSolution( state, w, System.nanoTime() + limit ), pool );
+                }
+                else{
+                    solver = new BatchSolver( weight > 1 ? search.withWeight( weight ) : search, pool );
+                }
+            }
+
+            LongAdder wrong = new LongAdder();
+            if( verify ){
+                DistanceTable table = DistanceTable.open( bs, new File( "." ) );
+                LongFunction<SearchResult> f = solver.solver;
+                solver = new BatchSolver( bs, state -> {
+                    SearchResult r = f.apply( state );
+                    if( r.getStatus() == SearchResult.Status.SOLVED && r.getLength() != table.estimate( state ) ){
+                        wrong.increment();
+                    }
+                    return r;
+                }, pool );
+            }
+
+            long start = System.nanoTime();
+            long count = solver.solve( in, out, moves );
+            long end = System.nanoTime();
+            System.err.println( "Solved " + count + " puzzles in " + ( end - start ) / 1000000 + " ms using " + threads + " threads" );
+            if( verify ){
+                System.err.println( "Solutions that are not optimal: " + wrong.sum() );
+            }
+            if( cache != null ){
+                System.err.println( "Cache hits: " + cache.getHits() + ", misses: " + cache.getMisses() );
+            }
+        }
+        catch( IOException | IllegalArgumentException e ){
+            System.err.println( e.getMessage() );
+        }
+        finally {
+            out.flush();
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * This class contains the result of one puzzle in a batch.
+     */
+    public static class Result {
+        /* Number of moves in the solution (-1 if there is none, -2 if the search ran out
+         * of its budget) */
+        private final int length;
+        /* Number of nodes generated */
+        private final int size;
+        /* Time it took to solve the puzzle in nanoseconds */
+        private final long time;
+        /* Moves of the space in the solution (see SearchResult.getMoves) */
+        private final byte[] moves;
+
+        public Result( int l, int s, long t, byte[] m ){
+            length = l;
+            size = s;
+            time = t;
+            moves = m;
+        }
+
+        /**
+         * Returns the number of moves in the solution (-1 if there is none, -2 if the
+         * search ran out of its budget).
+         */
+        public int getLength(){
+            return length;
+        }
+
+        /**
+         * Returns the number of nodes generated.
+         */
+        public int getSize(){
+            return size;
+        }
+
+        /**
+         * Returns the time it took to solve the puzzle in nanoseconds.
+         */
+        public long getTime(){
+            return time;
+        }
+
+        /**
+         * Returns the moves of the space in the solution, one letter per move.
+         */
+        public byte[] getMoves(){
+            return moves;
+        }
+
+        /**
+         * Writes the result to the given writer, including the moves of the solution if
+         * withMoves is true.
+         */
+        public void write( PrintWriter out, boolean withMoves ){
+            out.print( length );
+            out.print( ' ' );
+            out.print( size );
+            out.print( ' ' );
+            out.print( time );
+            if( withMoves ){
+                out.print( ' ' );
+                for( byte move : moves ){
+                    out.write( move );
+                }
+            }
+        }
+
+        /**
+         * Saves the result to a String and returns it.
+         */
+        public String toString(){
+            return length + " " + size + " " + time;
+        }
+    }
+
+    /**
+     * This class solves a range of the puzzles in a batch. Large ranges are split in
+     * half so that the pool can spread them over its threads.
+     */
+    private class SolveTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] states;
+        private final Result[] results;
+        private final int from;
+        private final int to;
+
+        private SolveTask( long[] s, Result[] r, int f, int t ){
+            states = s;
+            results = r;
+            from = f;
+            to = t;
+        }
+
+        protected void compute(){
+            if( to - from > THRESHOLD ){
+                int mid = ( from + to ) >>> 1;
+                invokeAll( new SolveTask( states, results, from, mid ), new SolveTask( states, results, mid, to ) );
+                return;
+            }
+            BoardSize bs = boardSize;
+            int[] tiles = new int[bs.getCells()];
+            for( int i = from; i < to; i++ ){
+                for( int j = 0; j < tiles.length; j++ ){
+                    tiles[j] = BoardState.tileAt( states[i], j );
+                }
+                long start = System.nanoTime();
+                if( bs.isSolvable( tiles ) ){
+                    SearchResult r = solver.apply( states[i] );
+                    int length = r.getStatus() == SearchResult.Status.SOLVED || r.getStatus() == SearchResult.Status.UNSOLVABLE ? r.getLength() : -2;
+                    results[i] = new Result( length, r.getSize(), System.nanoTime() - start, r.getMoves() );
+                }
+                else{
+                    results[i] = new Result( -1, 0, System.nanoTime() - start, new byte[0] );
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+import java.util.ArrayList;
+
+/**
+ * This class uses bidirectional A* search to solve any solvable sliding puzzle whose
+ * board fits in a long. One A* search runs forward from the initial puzzle towards the
+ * goal and another runs backward from the goal towards the initial puzzle, and each
+ * step expands a node of the side with the smaller frontier. Whenever a side generates
+ * a state that the other side has already reached, the two paths are joined and the
+ * best total found so far is kept. Since both heuristics are consistent, the search can
+ * stop (and the best joined path is optimal) as soon as that total is no greater than
+ * the lowest f(n) in either frontier.
+ *
+ * The forward side uses the configured heuristic (see Heuristic). The heuristics only
+ * estimate the distance to the goal, so the backward side uses the Manhattan distance
+ * of every tile from its cell in the initial puzzle instead, which is the same estimate
+ * with the tiles renumbered so that the initial puzzle becomes the goal. Like
+ * AStarSearch, an instance only holds its configuration and can be used by many
+ * threads at once; the state of every search is made for that search.
+ */
+public class BidirectionalSearch {
+    /* Contains the size of the board */
+    private final BoardSize boardSize;
+    /* Heuristic function used by the forward side */
+    private final Heuristic heuristic;
+
+    /* Constructor for puzzles of the given size using the given forward heuristic */
+    public BidirectionalSearch( BoardSize bs, Heuristic h ){
+        if( !bs.isPackable() ){
+            throw new IllegalArgumentException( "Board is too large: " + bs.getWidth() );
+        }
+        boardSize = bs;
+        heuristic = h;
+    }
+
+    /**
+     * Returns the size of the puzzles solved by this search.
+     */
+    public BoardSize getBoardSize(){
+        return boardSize;
+    }
+
+    /**
+     * Returns the heuristic used by the forward side.
+     */
+    public Heuristic getHeuristic(){
+        return heuristic;
+    }
+
+    /**
+     * Solves the given puzzle, which must have the same width as this search.
+     */
+    public SearchResult findSolution( int[][] puzzle ){
+        if( puzzle.length != boardSize.getWidth() ){
+            throw new IllegalArgumentException( "Puzzle width " + puzzle.length + " does not match " + boardSize.getWidth() );
+        }
+        return findSolution( BoardState.pack( puzzle ) );
+    }
+
+    /**
+     * Solves the given packed puzzle. The returned result is not solved if the puzzle
+     * has no solution.
+     */
+    public SearchResult findSolution( long start ){
+        int cells = boardSize.getCells();
+        long goal = boardSize.getGoal();
+        Side forward = new Side( new BoardNode( start, BoardState.findBlank( start, cells ), boardSize, heuristic ), heuristic, boardSize );
+        Heuristic toStart = new StartDistance( boardSize, start );
+        Side backward = new Side( new BoardNode( goal, 0, boardSize, toStart ), toStart, boardSize );
+        int size = 2;
+
+        /* Length of the best joined path and the nodes where its two halves meet */
+        int best = Integer.MAX_VALUE;
+        BoardNode meetForward = null;
+        BoardNode meetBackward = null;
+        if( start == goal ){
+            best = 0;
+            meetForward = forward.get( start );
+            meetBackward = backward.get( goal );
+        }
+
+        while( !forward.frontier.isEmpty() && !backward.frontier.isEmpty() ){
+            if( best <= Math.max( forward.frontier.peek().getF(), backward.frontier.peek().getF() ) ){
+                break;
+            }
+            Side side = forward.frontier.size() <= backward.frontier.size() ? forward : backward;
+            Side other = side == forward ? backward : forward;
+
+            BoardNode cur = side.frontier.poll();
+            side.explored.add( cur.getState() );
+            for( int target : boardSize.getNeighbors( cur.getBlank() ) ){
+                long child = BoardState.move( cur.getState(), cur.getBlank(), target );
+                if( side.explored.contains( child ) ){
+                    continue;
+                }
+                BoardNode node = new BoardNode( child, target, cur, side.heuristic );
+                if( !side.offer( node ) ){
+                    continue;
+                }
+                size++;
+
+                /* Joins the two paths if the other side already reached this state */
+                BoardNode match = other.get( child );
+                if( match != null && node.getG() + match.getG() < best ){
+                    best = node.getG() + match.getG();
+                    meetForward = side == forward ? node : match;
+                    meetBackward = side == forward ? match : node;
+                }
+            }
+        }
+
+        if( meetForward == null ){
+            return new SearchResult( null, size, boardSize.getWidth() );
+        }
+        return new SearchResult( join( meetForward, meetBackward ), 0, size, boardSize.getWidth() );
+    }
+
+    /**
+     * Returns the path from the initial puzzle to the goal through the given nodes,
+     * which have the same state.
+     */
+    private static long[] join( BoardNode forward, BoardNode backward ){
+        long[] path = new long[forward.getG() + backward.getG() + 1];
+        int i = forward.getG();
+        for( BoardNode step = forward; step != null; step = step.getParent() ){
+            path[i--] = step.getState();
+        }
+        i = forward.getG() + 1;
+        for( BoardNode step = backward.getParent(); step != null; step = step.getParent() ){
+            path[i++] = step.getState();
+        }
+        return path;
+    }
+
+    /**
+     * This class holds everything that belongs to one side of a search: its frontier,
+     * its explored set, and the best node found for every state it reached.
+     */
+    private static class Side {
+        /* Heuristic function used by this side */
+        private final Heuristic heuristic;
+        /* Contains nodes ordered by their f(n) value */
+        private final IndexedHeap frontier;
+        /* Contains the packed states of visited nodes */
+        private final StateSet explored;
+        /* Contains the best node for every state reached */
+        private final ArrayList<BoardNode> nodes;
+        /* Maps every state reached to the index of its best node */
+        private final LongIntHashMap index;
+
+        private Side( BoardNode root, Heuristic h, BoardSize bs ){
+            heuristic = h;
+            frontier = new IndexedHeap( new FCompare() );
+            explored = StateSet.forSize( bs );
+            nodes = new ArrayList<>();
+            index = new LongIntHashMap();
+            offer( root );
+        }
+
+        /**
+         * Adds the given node to the frontier unless the frontier already reaches its
+         * state at the same or a lower cost. Returns true if it was added.
+         */
+        private boolean offer( BoardNode node ){
+            if( !frontier.offer( node ) ){
+                return false;
+            }
+            int i = index.get( node.getState(), -1 );
+            if( i < 0 ){
+                index.put( node.getState(), nodes.size() );
+                nodes.add( node );
+            }
+            else{
+                nodes.set( i, node );
+            }
+            return true;
+        }
+
+        /**
+         * Returns the best node for the given state, or null if it was not reached.
+         */
+        private BoardNode get( long state ){
+            int i = index.get( state, -1 );
+            return i < 0 ? null : nodes.get( i );
+        }
+    }
+
+    /**
+     * This class is the heuristic of the backward side: the sum of the distances of the
+     * tiles from their cells in the initial puzzle.
+     */
+    private static class StartDistance implements Heuristic {
+        /* Contains the size of the board */
+        private final BoardSize boardSize;
+        /* Cell of each tile in the initial puzzle */
+        private final int[] cells;
+
+        private StartDistance( BoardSize bs, long start ){
+            boardSize = bs;
+            cells = new int[bs.getCells()];
+            for( int i = 0; i < cells.length; i++ ){
+                cells[BoardState.tileAt( start, i )] = i;
+            }
+        }
+
+        public String getName(){
+            return "START";
+        }
+
+        public int estimate( long state ){
+            int distance = 0;
+            for( int i = 0; i < cells.length; i++ ){
+                distance += distance( BoardState.tileAt( state, i ), i );
+            }
+            return distance;
+        }
+
+        public int estimate( int[] tiles ){
+            int distance = 0;
+            for( int i = 0; i < tiles.length; i++ ){
+                distance += distance( tiles[i], i );
+            }
+            return distance;
+        }
+
+        public int update( int h, long state, int tile, int from, int to ){
+            return h + distance( tile, to ) - distance( tile, from );
+        }
+
+        /**
+         * Returns the distance of the given tile from its cell in the initial puzzle
+         * when it is in the given cell (0 for the space).
+         */
+        private int distance( int tile, int cell ){
+            if( tile == 0 ){
+                return 0;
+            }
+            int home = cells[tile];
+            return Math.abs( boardSize.getRow( home ) - boardSize.getRow( cell ) )
+                    + Math.abs( boardSize.getColumn( home ) - boardSize.getColumn( cell ) );
+        }
+    }
+}
@@ -1,66 +1,67 @@
-import java.util.ArrayList;
-
 /**
- * This class represents one step or state of the 8-puzzle board. It references its
- * parent node and contains the current board. It also keeps track of f(n), g(n), and
+ * This class represents one step or state of the puzzle board. It references its parent
+ * node and contains the current board packed into a long (see BoardState) along with the
+ * cell of the space and the size of the board. It also keeps track of f(n), g(n), and
  * h(n).
  */
 public class BoardNode {
     private BoardNode parent;
-    private int[][] board = new int[3][3];
+    private long state;
+    private int blank;
+    private BoardSize boardSize;
     private int f = 0;
     private int h = 0;
     private int g;
-    /* Represents the goal state of the board */
-    private final int[][] GOAL_STATE = {{0 ,1, 2},
-                                        {3, 4, 5},
-                                        {6, 7, 8}};
-    /* Uses the goalH2 calculated in AStarSearch */
-    private ArrayList<int[]> goalH2 = new ArrayList<>();
 
-    /* Constructor for the root node (initial puzzle) */
-    public BoardNode( int[][] node ){
+    /* Constructor for the root node (initial puzzle), using the given heuristic */
+    public BoardNode( long s, int b, BoardSize bs, Heuristic heuristic ){
         parent = null;
-        board = node;
+        state = s;
+        blank = b;
+        boardSize = bs;
         g = 0;
-
-        /* Determines which heuristic to use */
-        if( AStarSearch.getHFlag() ){
-            goalH2 = AStarSearch.getGoalH2();
-            findH2();
-        }
-        else{
-            findH1();
-        }
+        h = heuristic.estimate( state );
 
         /* Calculates f(n) = g(n) + h(n) */
         f = g + h;
     }
 
-    /* Constructor for any non-root node */
-    public BoardNode( int[][] node, BoardNode p ){
+    /* Constructor for any non-root node, using the same heuristic as its parent */
+    public BoardNode( long s, int b, BoardNode p, Heuristic heuristic ){
         parent = p;
-        board = node;
+        state = s;
+        blank = b;
+        boardSize = parent.boardSize;
         g = parent.g + 1;
 
-        /* Determines which heuristic to use */
-        if( AStarSearch.getHFlag() ){
-            goalH2 = AStarSearch.getGoalH2();
-            findH2();
-        }
-        else{
-            findH1();
-        }
+        /* Only the tile that moved into the old cell of the space changed position, so
+         * the heuristic can update the parent's h(n) instead of scanning the board */
+        int tile = BoardState.tileAt( state, parent.blank );
+        h = heuristic.update( parent.h, state, tile, blank, parent.blank );
 
         /* Calculates f(n) = g(n) + h(n) */
         f = g + h;
     }
 
     /**
-     * Returns the current node (board).
+     * Returns the current node (board) as a new 2d array.
      */
     public int[][] getBoard(){
-        return board;
+        return BoardState.unpack( state, boardSize.getWidth() );
+    }
+
+    /**
+     * Returns the current node (board) packed into a long.
+     */
+    public long getState(){
+        return state;
+    }
+
+    /**
+     * Returns the cell that contains the space.
+     */
+    public int getBlank(){
+        return blank;
     }
 
     /**
@@ -71,51 +72,30 @@ public class BoardNode {
     }
 
     /**
-     * Returns the f(n) value of the current node.
+     * Returns the g(n) value (path cost) of the current node.
      */
-    public int getF(){
-        return f;
+    public int getG(){
+        return g;
     }
 
     /**
-     * Calculates h(n) for the first heuristic function (the number of misplaced tiles.
+     * Returns the h(n) value (estimated cost to the goal) of the current node.
      */
-    public void findH1(){
-        for( int i = 0; i < 3; i++ ){
-            for( int j = 0; j < 3; j++ ){
-                if( board[i][j] != 0 && board[i][j] != GOAL_STATE[i][j] ){
-                    h++;
-                }
-            }
-        }
+    public int getH(){
+        return h;
     }
 
     /**
-     * Calculates h(n) for the second heuristic function (the sum of the distances of the
-     * tiles from their goal positions.
+     * Returns the f(n) value of the current node.
      */
-    public void findH2(){
-        for( int i = 0; i < 3; i++ ){
-            for( int j = 0; j < 3; j++ ){
-                if( board[i][j] != 0 ){
-                    h += Math.abs( goalH2.get( board[i][j] )[0] - i ) + Math.abs( goalH2.get( board[i][j] )[1] - j );
-                }
-            }
-        }
+    public int getF(){
+        return f;
     }
 
-
     /**
      * Saves the current board to a String and returns it.
      */
     public String toString(){
-        String str = "\n";
-        for( int i = 0; i < 3; i++ ){
-            for( int j = 0; j < 3; j++ ){
-                str += ( board[i][j] + " "  );
-            }
-            str += "\n";
-        }
-        return str;
+        return BoardState.toString( state, boardSize.getWidth() );
     }
 }
@@ -0,0 +1,155 @@
+import java.util.Arrays;
+
+/**
+ * This class contains everything about the puzzle that depends on the width of the
+ * board: the number of cells, the goal state (tile t in cell t, with the space in the
+ * top left corner), the cells next to every cell, and the Manhattan distance of every
+ * tile from its goal cell (so h2 never has to compute rows and columns). Boards up to
+ * 4x4 (the 15-puzzle) can be packed into a long (see BoardState) and solved by
+ * AStarSearch. IDAStarSearch works on arrays, so it can also solve larger boards such as
+ * the 5x5 24-puzzle.
+ */
+public class BoardSize {
+    /* Width of the board */
+    private final int width;
+    /* Number of cells on the board */
+    private final int cells;
+    /* Cells next to each cell (in the order down, up, right, left) */
+    private final int[][] neighbors;
+    /* Row and column of each cell (tile t belongs in row rows[t] and column cols[t]) */
+    private final int[] rows;
+    private final int[] cols;
+    /* Distance of each tile from its goal cell, indexed by tile * cells + cell */
+    private final int[] distances;
+
+    /* Constructor that sets up a board of the given width */
+    public BoardSize( int w ){
+        if( w < 2 ){
+            throw new IllegalArgumentException( "Board width must be at least 2: " + w );
+        }
+        width = w;
+        cells = w * w;
+        neighbors = new int[cells][];
+        for( int i = 0; i < cells; i++ ){
+            int row = i / width;
+            int col = i % width;
+            int count = 0;
+            int[] next = new int[4];
+            if( row < width - 1 ){
+                next[count++] = i + width;
+            }
+            if( row > 0 ){
+                next[count++] = i - width;
+            }
+            if( col < width - 1 ){
+                next[count++] = i + 1;
+            }
+            if( col > 0 ){
+                next[count++] = i - 1;
+            }
+            neighbors[i] = Arrays.copyOf( next, count );
+        }
+
+        rows = new int[cells];
+        cols = new int[cells];
+        for( int i = 0; i < cells; i++ ){
+            rows[i] = i / width;
+            cols[i] = i % width;
+        }
+
+        distances = new int[cells * cells];
+        for( int tile = 1; tile < cells; tile++ ){
+            for( int i = 0; i < cells; i++ ){
+                distances[tile * cells + i] = Math.abs( tile / width - i / width )
+                        + Math.abs( tile % width - i % width );
+            }
+        }
+    }
+
+    /**
+     * Returns the width of the board.
+     */
+    public int getWidth(){
+        return width;
+    }
+
+    /**
+     * Returns the number of cells on the board.
+     */
+    public int getCells(){
+        return cells;
+    }
+
+    /**
+     * Returns the cells next to the given cell. The returned array must not be changed.
+     */
+    public int[] getNeighbors( int cell ){
+        return neighbors[cell];
+    }
+
+    /**
+     * Returns the row of the given cell (which is also the goal row of the tile with the
+     * same number).
+     */
+    public int getRow( int cell ){
+        return rows[cell];
+    }
+
+    /**
+     * Returns the column of the given cell (which is also the goal column of the tile
+     * with the same number).
+     */
+    public int getColumn( int cell ){
+        return cols[cell];
+    }
+
+    /**
+     * Returns the Manhattan distance of the given tile from its goal cell when it is in
+     * the given cell (0 for the space).
+     */
+    public int getDistance( int tile, int cell ){
+        return distances[tile * cells + cell];
+    }
+
+    /**
+     * Returns true if boards of this size fit in a long (see BoardState).
+     */
+    public boolean isPackable(){
+        return cells <= BoardState.MAX_CELLS;
+    }
+
+    /**
+     * Returns the packed goal state.
+     */
+    public long getGoal(){
+        return BoardState.goal( cells );
+    }
+
+    /**
+     * Returns true if the given board (stored row by row) can be solved. For an odd
+     * width, a move never changes the parity of the number of inversions, so it must be
+     * even like the goal. For an even width, a vertical move changes both the parity of
+     * the inversions and the row of the space, so their sum must be even like the goal
+     * (which has no inversions and the space in row 0). The board must contain each
+     * number from 0 to cells - 1 once.
+     */
+    public boolean isSolvable( int[] tiles ){
+        int inversions = 0;
+        int blankRow = 0;
+        for( int i = 0; i < tiles.length; i++ ){
+            if( tiles[i] == 0 ){
+                blankRow = i / width;
+                continue;
+            }
+            for( int j = i + 1; j < tiles.length; j++ ){
+                if( tiles[j] != 0 && tiles[i] > tiles[j] ){
+                    inversions++;
+                }
+            }
+        }
+        if( width % 2 == 1 ){
+            return inversions % 2 == 0;
+        }
+        return ( inversions + blankRow ) % 2 == 0;
+    }
+}
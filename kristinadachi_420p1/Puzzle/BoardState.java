@@ -0,0 +1,163 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * This class packs a sliding-puzzle board into a single long so that a whole state can
+ * be stored, compared, and hashed without any arrays or Strings. Each cell uses 4 bits
+ * (cell i, counted row by row, is stored in bits 4i to 4i+3), so boards of up to 16
+ * cells (the 4x4 15-puzzle) fit. The space is stored as a 0 tile; since a 4x4 board
+ * uses all 64 bits, the cell of the space is kept next to the state (see BoardNode)
+ * instead of inside it. A move swaps the space with a neighboring tile using bit
+ * operations.
+ */
+public final class BoardState {
+    /* Largest number of cells that fit in a long */
+    public static final int MAX_CELLS = 16;
+
+    /* Number of bits used to store one tile */
+    private static final int TILE_BITS = 4;
+    /* Mask for a single tile */
+    private static final long TILE_MASK = 0xFL;
+
+    /* This class only contains static methods */
+    private BoardState(){
+    }
+
+    /**
+     * Packs the given (square) board into a long.
+     */
+    public static long pack( int[][] board ){
+        int width = board.length;
+        if( width * width > MAX_CELLS ){
+            throw new IllegalArgumentException( "Board is too large to pack: " + width + "x" + width );
+        }
+        long state = 0;
+        for( int i = 0; i < width; i++ ){
+            for( int j = 0; j < width; j++ ){
+                state |= ( (long) board[i][j] ) << ( ( i * width + j ) * TILE_BITS );
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Unpacks the given state into a new board of the given width.
+     */
+    public static int[][] unpack( long state, int width ){
+        int[][] board = new int[width][width];
+        for( int i = 0; i < width; i++ ){
+            for( int j = 0; j < width; j++ ){
+                board[i][j] = tileAt( state, i * width + j );
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Returns the packed goal state for a board with the given number of cells (tile t
+     * is in cell t, so the space is in the top left corner).
+     */
+    public static long goal( int cells ){
+        long state = 0;
+        for( int i = 0; i < cells; i++ ){
+            state |= ( (long) i ) << ( i * TILE_BITS );
+        }
+        return state;
+    }
+
+    /**
+     * Returns the tile in the given cell of the state.
+     */
+    public static int tileAt( long state, int cell ){
+        return (int) ( ( state >>> ( cell * TILE_BITS ) ) & TILE_MASK );
+    }
+
+    /**
+     * Returns the cell that contains the space, looking at the first given number of
+     * cells.
+     */
+    public static int findBlank( long state, int cells ){
+        for( int i = 0; i < cells; i++ ){
+            if( tileAt( state, i ) == 0 ){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves the space from the cell blank to the given (neighboring) cell and returns the
+     * new state. The tile in that cell takes the old position of the space.
+     */
+    public static long move( long state, int blank, int target ){
+        long tile = ( state >>> ( target * TILE_BITS ) ) & TILE_MASK;
+        return ( state ^ ( tile << ( target * TILE_BITS ) ) ) | ( tile << ( blank * TILE_BITS ) );
+    }
+
+    /**
+     * Returns the letter of the move of the space from the given cell to the given
+     * neighboring cell on a board with the given width: 'U' (up), 'D' (down), 'L'
+     * (left), or 'R' (right).
+     */
+    public static byte direction( int from, int to, int width ){
+        if( to == from - width ){
+            return 'U';
+        }
+        if( to == from + width ){
+            return 'D';
+        }
+        return to == from - 1 ? (byte) 'L' : (byte) 'R';
+    }
+
+    /**
+     * Flips the given state of a board with the given width along its main diagonal, so
+     * the tile in row r and column c moves to row c and column r, and renumbers every
+     * tile as the tile whose goal cell is flipped the same way. The goal state stays the
+     * same, a puzzle needs as many moves as its flipped puzzle, and flipping twice gives
+     * back the original state.
+     */
+    public static long transpose( long state, int width ){
+        long flipped = 0;
+        for( int r = 0; r < width; r++ ){
+            for( int c = 0; c < width; c++ ){
+                int tile = tileAt( state, r * width + c );
+                int renamed = ( tile % width ) * width + tile / width;
+                flipped |= ( (long) renamed ) << ( ( c * width + r ) * TILE_BITS );
+            }
+        }
+        return flipped;
+    }
+
+    /**
+     * Saves the given state of a board with the given width to a String and returns it.
+     */
+    public static String toString( long state, int width ){
+        StringBuilder str = new StringBuilder();
+        try {
+            append( str, state, width );
+        }
+        catch( IOException e ){
+            /* A StringBuilder never throws */
+            throw new UncheckedIOException( e );
+        }
+        return str.toString();
+    }
+
+    /**
+     * Writes the given state of a board with the given width to the given Appendable in
+     * the same format as toString, one character at a time so no Strings are made.
+     */
+    public static void append( Appendable out, long state, int width ) throws IOException {
+        out.append( '\n' );
+        for( int i = 0; i < width; i++ ){
+            for( int j = 0; j < width; j++ ){
+                int tile = tileAt( state, i * width + j );
+                if( tile >= 10 ){
+                    out.append( (char) ( '0' + tile / 10 ) );
+                }
+                out.append( (char) ( '0' + tile % 10 ) ).append( ' ' );
+            }
+            out.append( '\n' );
+        }
+    }
+}
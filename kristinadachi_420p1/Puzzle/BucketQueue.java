@@ -0,0 +1,180 @@
+import java.util.Arrays;
+
+/**
+ * This class is a frontier that uses the fact that f(n) and g(n) are small integers.
+ * Nodes are stored in buckets indexed by f(n) and, inside each of those, by g(n). The
+ * next node is taken from the lowest f(n) bucket, preferring the highest g(n) so deeper
+ * nodes are expanded first when there is a tie. Adding and removing a node does not
+ * need any comparisons.
+ *
+ * A LongIntHashMap keeps the best g(n) offered for every state in the queue. A node that
+ * reaches a state more cheaply is pushed into its own bucket and the old node is left
+ * behind; such stale nodes are skipped when they come up.
+ */
+public class BucketQueue implements Frontier {
+    /* Contains the nodes: buckets[f][g] is a stack of nodes with those values */
+    private BoardNode[][][] buckets;
+    /* Number of nodes in each bucket */
+    private int[][] counts;
+    /* Lowest f(n) that may have a non-empty bucket */
+    private int minF;
+    /* Maps the packed state of every live node to its g(n) */
+    private LongIntHashMap best;
+
+    /* Constructor that creates an empty queue */
+    public BucketQueue(){
+        buckets = new BoardNode[64][][];
+        counts = new int[64][];
+        minF = 0;
+        best = new LongIntHashMap();
+    }
+
+    /**
+     * Adds the given node to its bucket. If the state is already in the queue with the
+     * same or a lower g(n), the node is rejected.
+     */
+    public boolean offer( BoardNode node ){
+        long state = node.getState();
+        int g = best.get( state, -1 );
+        if( g >= 0 && g <= node.getG() ){
+            return false;
+        }
+        best.put( state, node.getG() );
+        push( node );
+        return true;
+    }
+
+    /**
+     * Returns the next node without removing it (null if the queue is empty).
+     */
+    public BoardNode peek(){
+        if( !advance() ){
+            return null;
+        }
+        int g = topG( minF );
+        return buckets[minF][g][counts[minF][g] - 1];
+    }
+
+    /**
+     * Removes and returns the next node (null if the queue is empty).
+     */
+    public BoardNode poll(){
+        if( !advance() ){
+            return null;
+        }
+        int g = topG( minF );
+        int i = --counts[minF][g];
+        BoardNode node = buckets[minF][g][i];
+        buckets[minF][g][i] = null;
+        best.remove( node.getState() );
+        return node;
+    }
+
+    /**
+     * Returns the number of (live) nodes in the queue.
+     */
+    public int size(){
+        return best.size();
+    }
+
+    /**
+     * Returns true if the queue has no nodes and false otherwise.
+     */
+    public boolean isEmpty(){
+        return best.size() == 0;
+    }
+
+    /**
+     * Removes every node from the queue while keeping the buckets for reuse.
+     */
+    public void clear(){
+        for( int f = 0; f < buckets.length; f++ ){
+            if( buckets[f] != null ){
+                for( int g = 0; g < buckets[f].length; g++ ){
+                    if( counts[f][g] > 0 ){
+                        Arrays.fill( buckets[f][g], 0, counts[f][g], null );
+                        counts[f][g] = 0;
+                    }
+                }
+            }
+        }
+        minF = 0;
+        best.clear();
+    }
+
+    /**
+     * Pushes the given node onto the bucket for its f(n) and g(n).
+     */
+    private void push( BoardNode node ){
+        int f = node.getF();
+        int g = node.getG();
+        if( f >= buckets.length ){
+            int length = Math.max( f + 1, buckets.length << 1 );
+            buckets = Arrays.copyOf( buckets, length );
+            counts = Arrays.copyOf( counts, length );
+        }
+        if( buckets[f] == null || g >= buckets[f].length ){
+            /* g(n) can never be higher than f(n) */
+            int length = f + 1;
+            BoardNode[][] row = new BoardNode[length][];
+            int[] rowCounts = new int[length];
+            if( buckets[f] != null ){
+                System.arraycopy( buckets[f], 0, row, 0, buckets[f].length );
+                System.arraycopy( counts[f], 0, rowCounts, 0, counts[f].length );
+            }
+            buckets[f] = row;
+            counts[f] = rowCounts;
+        }
+        if( buckets[f][g] == null ){
+            buckets[f][g] = new BoardNode[16];
+        }
+        else if( counts[f][g] == buckets[f][g].length ){
+            buckets[f][g] = Arrays.copyOf( buckets[f][g], counts[f][g] << 1 );
+        }
+        buckets[f][g][counts[f][g]++] = node;
+        if( f < minF ){
+            minF = f;
+        }
+    }
+
+    /**
+     * Moves minF to the lowest non-empty bucket, dropping any stale nodes on the way.
+     * Returns false if there are no live nodes left.
+     */
+    private boolean advance(){
+        if( best.size() == 0 ){
+            return false;
+        }
+        while( true ){
+            int g = topG( minF );
+            if( g < 0 ){
+                minF++;
+                continue;
+            }
+            int i = counts[minF][g] - 1;
+            BoardNode node = buckets[minF][g][i];
+            if( best.get( node.getState(), -1 ) == g ){
+                return true;
+            }
+            /* A cheaper node for this state was offered later (or already removed) */
+            buckets[minF][g][i] = null;
+            counts[minF][g] = i;
+        }
+    }
+
+    /**
+     * Returns the highest g(n) with a non-empty bucket for the given f(n), or -1 if all
+     * of them are empty.
+     */
+    private int topG( int f ){
+        if( f >= counts.length || counts[f] == null ){
+            return -1;
+        }
+        for( int g = counts[f].length - 1; g >= 0; g-- ){
+            if( counts[f][g] > 0 ){
+                return g;
+            }
+        }
+        return -1;
+    }
+}
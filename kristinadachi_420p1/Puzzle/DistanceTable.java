@@ -0,0 +1,322 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * This class contains the exact number of moves needed to solve every solvable puzzle of
+ * a small board (the 8-puzzle has 181,440 of them). The table is found once with a
+ * breadth-first search backwards from the goal, saved as one byte per state in a binary
+ * file, and loaded through a memory-mapped FileChannel (like PatternDatabase). A puzzle
+ * is then solved without searching by always moving the space to a neighbor that is one
+ * move closer to the goal (see findSolution). Since it is exact, the table can also be
+ * used as a heuristic.
+ *
+ * A state is found in the table by the cell of the space and the order of the other
+ * tiles. For a given cell of the space, only half of the orders are solvable (those with
+ * the right parity, see BoardSize.isSolvable), and in lexicographic order each even
+ * order is next to an odd one (the two only differ by swapping the last two tiles), so
+ * the rank of the order divided by two is enough. The table has cells * (cells - 1)! / 2
+ * entries and only boards up to 3x3 are supported.
+ */
+public class DistanceTable implements Heuristic {
+    /* Used to recognize a distance table file */
+    private static final int MAGIC = 0x44535431;
+
+    /* Contains the size of the board */
+    private final BoardSize boardSize;
+    /* Number of entries for each cell of the space: (cells - 1)! / 2 */
+    private final int orders;
+    /* Number of moves from the goal of every solvable state */
+    private final ByteBuffer table;
+
+    /* Constructor used once the table is built or mapped */
+    private DistanceTable( BoardSize bs, ByteBuffer t ){
+        boardSize = bs;
+        orders = factorial( bs.getCells() - 1 ) / 2;
+        table = t;
+    }
+
+    /**
+     * Returns the name of this heuristic.
+     */
+    public String getName(){
+        return "EXACT";
+    }
+
+    /**
+     * Returns the size of the puzzles in this table.
+     */
+    public BoardSize getBoardSize(){
+        return boardSize;
+    }
+
+    /**
+     * Returns the distance table for the given size. It is loaded from the file in the
+     * given directory if it exists and otherwise built and saved there first.
+     */
+    public static DistanceTable open( BoardSize bs, File dir ) throws IOException {
+        File file = new File( dir, "dist-" + bs.getWidth() + "x" + bs.getWidth() + ".bin" );
+        if( !file.exists() ){
+            build( bs ).save( file );
+        }
+        return load( file );
+    }
+
+    /**
+     * Loads the distance table from the given file. The table is memory-mapped instead
+     * of being read into the heap.
+     */
+    public static DistanceTable load( File file ) throws IOException {
+        try( RandomAccessFile raf = new RandomAccessFile( file, "r" );
+             FileChannel channel = raf.getChannel() ){
+            if( raf.readInt() != MAGIC ){
+                throw new IOException( "Not a distance table: " + file );
+            }
+            BoardSize bs = new BoardSize( raf.readInt() );
+            int length = raf.readInt();
+            return new DistanceTable( bs, channel.map( FileChannel.MapMode.READ_ONLY, raf.getFilePointer(), length ) );
+        }
+    }
+
+    /**
+     * Saves the distance table to the given file.
+     */
+    public void save( File file ) throws IOException {
+        try( DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( file ) ) ) ){
+            out.writeInt( MAGIC );
+            out.writeInt( boardSize.getWidth() );
+            int length = table.capacity();
+            out.writeInt( length );
+            for( int i = 0; i < length; i++ ){
+                out.write( table.get( i ) );
+            }
+        }
+    }
+
+    /**
+     * Builds the distance table for the given size with a breadth-first search from the
+     * goal. Since every move can be undone, the number of moves from the goal to a state
+     * is the number of moves needed to solve it.
+     */
+    public static DistanceTable build( BoardSize bs ){
+        if( bs.getCells() > 9 ){
+            throw new IllegalArgumentException( "Board is too large for a distance table: " + bs.getWidth() );
+        }
+        int cells = bs.getCells();
+        byte[] distances = new byte[entries( cells )];
+        Arrays.fill( distances, (byte) -1 );
+        DistanceTable dt = new DistanceTable( bs, ByteBuffer.wrap( distances ) );
+
+        /* Every state is added to the queue once, along with the cell of its space */
+        long[] queue = new long[distances.length];
+        byte[] blanks = new byte[distances.length];
+        int head = 0;
+        int tail = 0;
+        long goal = bs.getGoal();
+        distances[dt.index( goal )] = 0;
+        queue[tail] = goal;
+        blanks[tail++] = 0;
+        while( head < tail ){
+            long state = queue[head];
+            int blank = blanks[head++];
+            int d = distances[dt.index( state )];
+            for( int to : bs.getNeighbors( blank ) ){
+                long child = BoardState.move( state, blank, to );
+                int i = dt.index( child );
+                if( distances[i] == -1 ){
+                    distances[i] = (byte) ( d + 1 );
+                    queue[tail] = child;
+                    blanks[tail++] = (byte) to;
+                }
+            }
+        }
+        return dt;
+    }
+
+    /**
+     * Returns the number of moves needed to solve the given packed state, which must be
+     * solvable.
+     */
+    public int estimate( long state ){
+        return table.get( index( state ) );
+    }
+
+    /**
+     * Returns the number of moves needed to solve the given board, which must be
+     * solvable.
+     */
+    public int estimate( int[] tiles ){
+        long state = 0;
+        for( int i = 0; i < tiles.length; i++ ){
+            state |= ( (long) tiles[i] ) << ( i * 4 );
+        }
+        return estimate( state );
+    }
+
+    /**
+     * Solves the given packed state by moving the space to a neighbor that is one move
+     * closer to the goal until the goal is reached. The size of the result is the number
+     * of states looked up. The result is not solved if the puzzle has no solution.
+     */
+    public SearchResult findSolution( long start ){
+        int cells = boardSize.getCells();
+        int[] tiles = new int[cells];
+        for( int i = 0; i < cells; i++ ){
+            tiles[i] = BoardState.tileAt( start, i );
+        }
+        if( !boardSize.isSolvable( tiles ) ){
+            return new SearchResult( null, 0, boardSize.getWidth() );
+        }
+
+        int blank = BoardState.findBlank( start, cells );
+        int d = table.get( index( start ) );
+        long[] path = new long[d + 1];
+        path[0] = start;
+        int size = 1;
+        for( int step = 1; step <= d; step++ ){
+            long state = path[step - 1];
+            for( int to : boardSize.getNeighbors( blank ) ){
+                long child = BoardState.move( state, blank, to );
+                size++;
+                if( table.get( index( child ) ) == d - step ){
+                    path[step] = child;
+                    blank = to;
+                    break;
+                }
+            }
+        }
+        return new SearchResult( path, 0, size, boardSize.getWidth() );
+    }
+
+    /**
+     * Returns the entries of every state that needs the given number of moves (see
+     * getState), in increasing order. The whole table is scanned.
+     */
+    public int[] findEntries( int moves ){
+        int length = table.capacity();
+        int count = 0;
+        for( int i = 0; i < length; i++ ){
+            if( table.get( i ) == moves ){
+                count++;
+            }
+        }
+        int[] entries = new int[count];
+        int n = 0;
+        for( int i = 0; i < length && n < count; i++ ){
+            if( table.get( i ) == moves ){
+                entries[n++] = i;
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the packed state of the given entry. The order of the tiles is the even
+     * order of the entry (twice its rank), or the odd one next to it if the even order
+     * is not solvable with the space in the cell of the entry.
+     */
+    public long getState( int entry ){
+        int cells = boardSize.getCells();
+        int blank = entry / orders;
+        int rank = ( entry % orders ) * 2;
+
+        /* Finds the order of the tiles from its rank, one digit of the rank at a time */
+        int[] tiles = new int[cells];
+        int used = 0;
+        int place = factorial( cells - 2 );
+        int cell = 0;
+        for( int k = 0; k < cells - 1; k++ ){
+            int digit = rank / place;
+            rank %= place;
+            if( k < cells - 2 ){
+                place /= cells - 2 - k;
+            }
+            /* The tile is the digit-th smallest unused one */
+            int tile = 0;
+            while( digit >= 0 ){
+                tile++;
+                if( ( used & ( 1 << tile ) ) == 0 ){
+                    digit--;
+                }
+            }
+            used |= 1 << tile;
+            if( cell == blank ){
+                cell++;
+            }
+            tiles[cell++] = tile;
+        }
+
+        if( !boardSize.isSolvable( tiles ) ){
+            /* The odd order swaps the last two tiles */
+            int last = blank == cells - 1 ? cells - 2 : cells - 1;
+            int before = blank == last - 1 ? last - 2 : last - 1;
+            int t = tiles[last];
+            tiles[last] = tiles[before];
+            tiles[before] = t;
+        }
+        long state = 0;
+        for( int i = 0; i < cells; i++ ){
+            state |= ( (long) tiles[i] ) << ( i * 4 );
+        }
+        return state;
+    }
+
+    /**
+     * Returns the entry of the given state in this table.
+     */
+    private int index( long state ){
+        return index( state, boardSize.getCells(), orders );
+    }
+
+    /**
+     * Returns the number of entries of a table for boards with the given number of cells
+     * (one for every solvable state).
+     */
+    static int entries( int cells ){
+        return cells * ( factorial( cells - 1 ) / 2 );
+    }
+
+    /**
+     * Returns the entry of the given state for boards with the given number of cells,
+     * where orders is (cells - 1)! / 2: the cell of the space times orders, plus half the
+     * lexicographic rank of the order of the other tiles (numbered 1 to cells - 1). The
+     * entries of the solvable states are all different (see RankedStateSet).
+     */
+    static int index( long state, int cells, int orders ){
+        int blank = 0;
+        int rank = 0;
+        int used = 0;
+        int k = 0;
+        for( int i = 0; i < cells; i++ ){
+            int tile = BoardState.tileAt( state, i );
+            if( tile != 0 ){
+                /* Number of tiles smaller than this one that are still unused */
+                int smaller = tile - 1 - Integer.bitCount( used & ( ( 1 << tile ) - 1 ) );
+                rank = rank * ( cells - 1 - k ) + smaller;
+                used |= 1 << tile;
+                k++;
+            }
+            else{
+                blank = i;
+            }
+        }
+        return blank * orders + ( rank >>> 1 );
+    }
+
+    /**
+     * Returns n!.
+     */
+    private static int factorial( int n ){
+        int f = 1;
+        for( int i = 2; i <= n; i++ ){
+            f *= i;
+        }
+        return f;
+    }
+}
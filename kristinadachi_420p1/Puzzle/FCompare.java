@@ -2,14 +2,30 @@ import java.util.Comparator;
 
 /**
  * This class was created to allow the priority queue (frontier) in the AStarSearch class
- * to compare the nodes by their f(n) values.
+ * to compare the nodes by their f(n) values. For weighted A*, h(n) is multiplied by a
+ * weight first, so the nodes are compared by g(n) + w * h(n).
  */
 public class FCompare implements Comparator<BoardNode>{
+    /* Weight of h(n) (1 for A*) */
+    private final double weight;
+
+    /* Constructor that compares the nodes by f(n) = g(n) + h(n) */
+    public FCompare(){
+        this( 1 );
+    }
+
+    /* Constructor that compares the nodes by g(n) + w * h(n) with the given weight */
+    public FCompare( double w ){
+        weight = w;
+    }
 
     /**
      * Compares two given nodes by their f(n) value.
      */
     public int compare( BoardNode n1, BoardNode n2 ){
+        if( weight != 1 ){
+            return Double.compare( n1.getG() + weight * n1.getH(), n2.getG() + weight * n2.getH() );
+        }
         int f1 = n1.getF();
         int f2 = n2.getF();
         if( f1 < f2 ){
@@ -0,0 +1,39 @@
+/**
+ * This interface represents the frontier used by AStarSearch. A frontier holds at most
+ * one node per state and always returns a node with the lowest f(n) first. Offering a
+ * node for a state that is already in the frontier only succeeds if the new node has a
+ * lower g(n). A frontier is only used by one thread (see AStarSearch).
+ */
+public interface Frontier {
+    /**
+     * Adds the given node to the frontier. Returns true if the node was added and false
+     * if it was rejected because the frontier already reaches its state at the same or a
+     * lower cost.
+     */
+    boolean offer( BoardNode node );
+
+    /**
+     * Returns the next node without removing it (null if the frontier is empty).
+     */
+    BoardNode peek();
+
+    /**
+     * Removes and returns the next node (null if the frontier is empty).
+     */
+    BoardNode poll();
+
+    /**
+     * Returns the number of nodes in the frontier.
+     */
+    int size();
+
+    /**
+     * Returns true if the frontier has no nodes and false otherwise.
+     */
+    boolean isEmpty();
+
+    /**
+     * Removes every node from the frontier.
+     */
+    void clear();
+}
@@ -0,0 +1,75 @@
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * This interface represents a heuristic function h(n) used by AStarSearch and
+ * IDAStarSearch. Every search carries its own heuristic, so different heuristics can be
+ * used (and compared) side by side. A heuristic is made for one board size and must be
+ * admissible (it never overestimates the number of moves left) and consistent (one move
+ * changes it by at most one), since AStarSearch and BidirectionalSearch never reopen an
+ * explored state and would return solutions that are too long otherwise (IDAStarSearch
+ * only needs an admissible one). Every heuristic returned by forName is consistent; the
+ * pattern database is only consistent because it keeps a value for every region the
+ * space can be in (see PatternDatabase). One AStarSearch can be used by many threads at
+ * once, so a heuristic must not change once it is made.
+ *
+ * A board is given either packed into a long (see BoardState) or stored row by row in
+ * an array. When a child is generated, exactly one tile moved, so a heuristic can work
+ * out the new value from the old one (see update); by default it is computed again.
+ */
+public interface Heuristic {
+    /**
+     * Returns the short name of the heuristic (for example "H2").
+     */
+    String getName();
+
+    /**
+     * Returns h(n) for the given packed state.
+     */
+    int estimate( long state );
+
+    /**
+     * Returns h(n) for the given board, which is stored row by row.
+     */
+    int estimate( int[] tiles );
+
+    /**
+     * Returns h(n) for the given packed state, which was formed by moving the given tile
+     * from one cell to the other in a state whose heuristic value was h.
+     */
+    default int update( int h, long state, int tile, int from, int to ){
+        return estimate( state );
+    }
+
+    /**
+     * Returns h(n) for the given board, which was formed by moving the given tile from
+     * one cell to the other in a board whose heuristic value was h.
+     */
+    default int update( int h, int[] tiles, int tile, int from, int to ){
+        return estimate( tiles );
+    }
+
+    /**
+     * Returns the heuristic with the given name (h1, h2, lc, wd, pdb, or exact, ignoring
+     * case) for boards of the given size. The pattern database and the distance table
+     * are loaded from (or built and saved in) the current directory.
+     */
+    static Heuristic forName( String name, BoardSize bs ) throws IOException {
+        switch( name.toLowerCase() ){
+            case "h1":
+                return new MisplacedTiles();
+            case "h2":
+                return new ManhattanDistance( bs );
+            case "lc":
+                return new LinearConflict( bs );
+            case "wd":
+                return new WalkingDistance( bs );
+            case "pdb":
+                return PatternDatabase.open( bs, new File( "." ) );
+            case "exact":
+                return DistanceTable.open( bs, new File( "." ) );
+            default:
+                throw new IllegalArgumentException( "Unknown heuristic: " + name );
+        }
+    }
+}
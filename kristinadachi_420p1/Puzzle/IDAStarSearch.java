@@ -0,0 +1,218 @@
+/**
+ * This class uses the Iterative-Deepening A* (IDA*) search algorithm to solve any
+ * solvable sliding puzzle. Instead of keeping a frontier and an explored set, it runs a
+ * series of depth-first searches, each limited by a bound on f(n) = g(n) + h(n). The
+ * bound starts at h(root) and is raised to the lowest f(n) that exceeded it until the
+ * goal is found. The same heuristics as AStarSearch can be used (see Heuristic).
+ *
+ * Only one board is kept: each move is made in place on an array and undone after the
+ * recursive call returns, and the move that would undo the previous one is never tried.
+ * The memory used is proportional to the depth of the solution, and nothing is
+ * allocated while searching (apart from growing the path when the bound increases).
+ * Since the board is not packed into a long, any width can be solved (for example the
+ * 5x5 24-puzzle). Unlike AStarSearch, it does not stop on an unsolvable puzzle, so the
+ * puzzle should be checked first (see UI.validate).
+ */
+public class IDAStarSearch {
+    /* Returned by the recursive search when the goal is found */
+    private static final int FOUND = -1;
+
+    /* Contains the size of the board */
+    private BoardSize boardSize;
+    /* Contains the initial puzzle stored row by row */
+    private int[] root;
+    /* Board that is changed in place during the search */
+    private int[] tiles;
+    /* Cell that contains the space */
+    private int blank;
+    /* Keeps track of the nodes generated */
+    private long size;
+    /* Cells the space moved to, in order (path[i] is the move made at depth i) */
+    private int[] path;
+    /* Number of moves in the solution */
+    private int length;
+
+    /* Heuristic function used to find h(n) */
+    private Heuristic heuristic;
+
+    /* Constructor that initializes the components of this search */
+    public IDAStarSearch( int[][] node ){
+        boardSize = new BoardSize( node.length );
+        int width = boardSize.getWidth();
+        root = new int[boardSize.getCells()];
+        for( int i = 0; i < width; i++ ){
+            for( int j = 0; j < width; j++ ){
+                root[i * width + j] = node[i][j];
+            }
+        }
+        tiles = new int[boardSize.getCells()];
+        path = new int[32];
+        size = 0;
+        length = 0;
+        heuristic = new MisplacedTiles();
+    }
+
+    /**
+     * Returns the number of nodes generated in the search tree.
+     */
+    public long getSize(){
+        return size;
+    }
+
+    /**
+     * Returns the number of moves in the solution.
+     */
+    public int getLength(){
+        return length;
+    }
+
+    /**
+     * Returns the heuristic used by this search.
+     */
+    public Heuristic getHeuristic(){
+        return heuristic;
+    }
+
+    /**
+     * Used to switch between heuristics. The heuristic must be made for the same board
+     * size as the puzzle.
+     */
+    public void setHeuristic( Heuristic h ){
+        heuristic = h;
+    }
+
+    /**
+     * Represents using the IDA* search algorithm to find a solution for any solvable
+     * puzzle. The board is reset to the initial puzzle and depth-first searches are
+     * repeated with a growing bound until the goal is found.
+     */
+    public void findSolution(){
+        System.arraycopy( root, 0, tiles, 0, root.length );
+        for( int i = 0; i < tiles.length; i++ ){
+            if( tiles[i] == 0 ){
+                blank = i;
+            }
+        }
+        size = 1;
+        length = 0;
+
+        int h = heuristic.estimate( tiles );
+        int bound = h;
+        while( true ){
+            if( path.length <= bound ){
+                path = new int[bound + 1];
+            }
+            int t = search( 0, h, bound, -1 );
+            if( t == FOUND || t == Integer.MAX_VALUE ){
+                return;
+            }
+            bound = t;
+        }
+    }
+
+    /**
+     * Performs a depth-first search from the current board, which is g moves away from
+     * the root and has the heuristic value h. The space came from the cell prev, so
+     * moving it back there is skipped. Returns FOUND if the goal was reached and
+     * otherwise the lowest f(n) that exceeded the bound.
+     */
+    private int search( int g, int h, int bound, int prev ){
+        int f = g + h;
+        if( f > bound ){
+            return f;
+        }
+        if( h == 0 ){
+            length = g;
+            return FOUND;
+        }
+
+        int min = Integer.MAX_VALUE;
+        int from = blank;
+        int[] next = boardSize.getNeighbors( from );
+        for( int k = 0; k < next.length; k++ ){
+            int to = next[k];
+            if( to == prev ){
+                continue;
+            }
+            int tile = tiles[to];
+            move( to );
+            path[g] = to;
+            size++;
+
+            /* Only the moved tile changed position, so h(n) is updated from the parent's */
+            int t = search( g + 1, heuristic.update( h, tiles, tile, to, from ), bound, from );
+            if( t == FOUND ){
+                return FOUND;
+            }
+            move( from );
+            if( t < min ){
+                min = t;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Moves the space to the given (neighboring) cell of the board.
+     */
+    private void move( int to ){
+        tiles[blank] = tiles[to];
+        tiles[to] = 0;
+        blank = to;
+    }
+
+    /**
+     * Returns the moves of the space in the solution, one letter ('U', 'D', 'L', or 'R')
+     * per move (see BoardState.direction).
+     */
+    public byte[] getMoves(){
+        byte[] moves = new byte[length];
+        int from = 0;
+        for( int i = 0; i < root.length; i++ ){
+            if( root[i] == 0 ){
+                from = i;
+            }
+        }
+        for( int i = 0; i < length; i++ ){
+            moves[i] = BoardState.direction( from, path[i], boardSize.getWidth() );
+            from = path[i];
+        }
+        return moves;
+    }
+
+    /**
+     * Saves the solution path to a String and returns it.
+     */
+    public String toString(){
+        int[] board = root.clone();
+        int space = 0;
+        for( int i = 0; i < board.length; i++ ){
+            if( board[i] == 0 ){
+                space = i;
+            }
+        }
+
+        StringBuilder str = new StringBuilder();
+        appendBoard( str, board );
+        for( int i = 0; i < length; i++ ){
+            board[space] = board[path[i]];
+            board[path[i]] = 0;
+            space = path[i];
+            appendBoard( str, board );
+        }
+        return str.toString();
+    }
+
+    /**
+     * Appends the given board to the given StringBuilder.
+     */
+    private void appendBoard( StringBuilder str, int[] board ){
+        str.append( '\n' );
+        for( int i = 0; i < board.length; i++ ){
+            str.append( board[i] ).append( ' ' );
+            if( i % boardSize.getWidth() == boardSize.getWidth() - 1 ){
+                str.append( '\n' );
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * This class is a binary heap of BoardNode objects that also remembers the slot of every
+ * state it contains (using a LongIntHashMap). This allows the frontier to hold at most
+ * one node per state: when a node for a state that is already in the heap is offered,
+ * it replaces the old node only if it has a lower g(n) (decrease-key) and is rejected
+ * otherwise. Nodes are ordered by the given Comparator.
+ */
+public class IndexedHeap implements Frontier {
+    /* Used to order the nodes */
+    private Comparator<BoardNode> compare;
+    /* Contains the nodes in heap order */
+    private BoardNode[] heap;
+    /* Number of nodes in the heap */
+    private int size;
+    /* Maps the packed state of every node to its slot in the heap */
+    private LongIntHashMap slots;
+
+    /* Constructor that creates an empty heap ordered by the given Comparator */
+    public IndexedHeap( Comparator<BoardNode> c ){
+        compare = c;
+        heap = new BoardNode[64];
+        size = 0;
+        slots = new LongIntHashMap();
+    }
+
+    /**
+     * Returns the number of nodes in the heap.
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Returns true if the heap has no nodes and false otherwise.
+     */
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    /**
+     * Returns true if a node with the given state is in the heap and false otherwise.
+     */
+    public boolean contains( long state ){
+        return slots.get( state, -1 ) >= 0;
+    }
+
+    /**
+     * Adds the given node to the heap. If a node with the same state is already in the
+     * heap, the new node replaces it only if it has a lower g(n) and is moved up to its
+     * new place. Returns true if the node was added and false if it was rejected.
+     */
+    public boolean offer( BoardNode node ){
+        int slot = slots.get( node.getState(), -1 );
+        if( slot < 0 ){
+            if( size == heap.length ){
+                heap = Arrays.copyOf( heap, size << 1 );
+            }
+            heap[size] = node;
+            siftUp( size++ );
+            return true;
+        }
+        if( node.getG() < heap[slot].getG() ){
+            heap[slot] = node;
+            siftUp( slot );
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the node in the given slot of the heap (from 0 to size() - 1). Only the
+     * first slot has a known place in the order, so this is meant for looking at every
+     * node.
+     */
+    public BoardNode get( int slot ){
+        return heap[slot];
+    }
+
+    /**
+     * Returns the first node without removing it (null if the heap is empty).
+     */
+    public BoardNode peek(){
+        return size == 0 ? null : heap[0];
+    }
+
+    /**
+     * Removes and returns the first node (null if the heap is empty).
+     */
+    public BoardNode poll(){
+        if( size == 0 ){
+            return null;
+        }
+        BoardNode first = heap[0];
+        slots.remove( first.getState() );
+        BoardNode last = heap[--size];
+        heap[size] = null;
+        if( size > 0 ){
+            heap[0] = last;
+            siftDown( 0 );
+        }
+        return first;
+    }
+
+    /**
+     * Removes every node from the heap.
+     */
+    public void clear(){
+        Arrays.fill( heap, 0, size, null );
+        size = 0;
+        slots.clear();
+    }
+
+    /**
+     * Moves the node in the given slot up until its parent is not greater than it.
+     */
+    private void siftUp( int i ){
+        BoardNode node = heap[i];
+        while( i > 0 ){
+            int parent = ( i - 1 ) >>> 1;
+            if( compare.compare( node, heap[parent] ) >= 0 ){
+                break;
+            }
+            place( heap[parent], i );
+            i = parent;
+        }
+        place( node, i );
+    }
+
+    /**
+     * Moves the node in the given slot down until none of its children are less than it.
+     */
+    private void siftDown( int i ){
+        BoardNode node = heap[i];
+        int half = size >>> 1;
+        while( i < half ){
+            int child = 2 * i + 1;
+            if( child + 1 < size && compare.compare( heap[child + 1], heap[child] ) < 0 ){
+                child++;
+            }
+            if( compare.compare( node, heap[child] ) <= 0 ){
+                break;
+            }
+            place( heap[child], i );
+            i = child;
+        }
+        place( node, i );
+    }
+
+    /**
+     * Stores the given node in the given slot and records the slot for its state.
+     */
+    private void place( BoardNode node, int i ){
+        heap[i] = node;
+        slots.put( node.getState(), i );
+    }
+}
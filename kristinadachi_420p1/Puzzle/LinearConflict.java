@@ -0,0 +1,94 @@
+/**
+ * This class represents the Manhattan distance plus linear conflicts. Two tiles are in
+ * a linear conflict if they are both in their goal row (or column) but in the wrong
+ * order, so one of them has to leave the line and come back, which takes two moves that
+ * the Manhattan distance does not count. For each line, the smallest number of tiles
+ * that must leave it is the number of its goal tiles minus the longest increasing
+ * sequence of their goal positions, and two moves are added for each of them.
+ */
+public class LinearConflict implements Heuristic {
+    /* Contains the size of the board */
+    private final BoardSize boardSize;
+    /* Used for the Manhattan distance part */
+    private final ManhattanDistance manhattan;
+
+    /* Constructor for a board of the given size */
+    public LinearConflict( BoardSize bs ){
+        boardSize = bs;
+        manhattan = new ManhattanDistance( bs );
+    }
+
+    /**
+     * Returns the name of this heuristic.
+     */
+    public String getName(){
+        return "LC";
+    }
+
+    /**
+     * Returns the Manhattan distance plus linear conflicts of the given packed state.
+     */
+    public int estimate( long state ){
+        return manhattan.estimate( state ) + conflicts( state, null );
+    }
+
+    /**
+     * Returns the Manhattan distance plus linear conflicts of the given board.
+     */
+    public int estimate( int[] tiles ){
+        return manhattan.estimate( tiles ) + conflicts( 0, tiles );
+    }
+
+    /**
+     * Returns the extra moves caused by linear conflicts in every row and column. The
+     * board is read from tiles if it is not null and from the packed state otherwise.
+     */
+    private int conflicts( long state, int[] tiles ){
+        int width = boardSize.getWidth();
+        int extra = 0;
+        for( int line = 0; line < width; line++ ){
+            /* Sets used to find the longest increasing sequence (see longest) */
+            int rowSet = 0;
+            int colSet = 0;
+            int rowCount = 0;
+            int colCount = 0;
+            for( int k = 0; k < width; k++ ){
+                /* The tile in row line and column k */
+                int tile = tileAt( state, tiles, line * width + k );
+                if( tile != 0 && boardSize.getRow( tile ) == line ){
+                    rowSet = longest( rowSet, boardSize.getColumn( tile ) );
+                    rowCount++;
+                }
+
+                /* The tile in column line and row k */
+                tile = tileAt( state, tiles, k * width + line );
+                if( tile != 0 && boardSize.getColumn( tile ) == line ){
+                    colSet = longest( colSet, boardSize.getRow( tile ) );
+                    colCount++;
+                }
+            }
+            extra += 2 * ( rowCount - Integer.bitCount( rowSet ) );
+            extra += 2 * ( colCount - Integer.bitCount( colSet ) );
+        }
+        return extra;
+    }
+
+    /**
+     * Adds the value v to the given set of values (stored as bits) like patience sorting:
+     * the smallest value higher than v is replaced by v. After adding a whole sequence of
+     * distinct values, the number of values in the set is the length of its longest
+     * increasing subsequence.
+     */
+    private static int longest( int set, int v ){
+        int higher = set & -( 1 << ( v + 1 ) );
+        return ( set & ~( higher & -higher ) ) | ( 1 << v );
+    }
+
+    /**
+     * Returns the tile in the given cell, read from tiles if it is not null and from the
+     * packed state otherwise.
+     */
+    private static int tileAt( long state, int[] tiles, int cell ){
+        return tiles != null ? tiles[cell] : BoardState.tileAt( state, cell );
+    }
+}
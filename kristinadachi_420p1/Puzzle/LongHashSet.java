@@ -0,0 +1,123 @@
+import java.util.Arrays;
+
+/**
+ * This class is a hash set of primitive longs that uses open addressing with linear
+ * probing. It is used for the explored set so that visited states are stored in a single
+ * long array instead of boxed objects and hash map entries. The value 0 marks an empty
+ * slot since it is never a valid packed board. Clearing the set keeps the table, so the
+ * same set can be reused for the next puzzle without allocating again. Boards up to 3x3
+ * use the smaller RankedStateSet instead (see StateSet.forSize).
+ */
+public class LongHashSet implements StateSet {
+    /* Value used to mark an empty slot */
+    private static final long EMPTY = 0L;
+    /* Default number of slots (must be a power of two) */
+    private static final int DEFAULT_CAPACITY = 1 << 10;
+
+    /* Contains the keys */
+    private long[] table;
+    /* Number of keys in the set */
+    private int size;
+    /* Mask used to wrap indices around the table */
+    private int mask;
+    /* Number of keys allowed before the table is doubled */
+    private int threshold;
+
+    /* Constructor that creates a set with the default capacity */
+    public LongHashSet(){
+        this( DEFAULT_CAPACITY );
+    }
+
+    /* Constructor that creates a set able to hold the given number of keys */
+    public LongHashSet( int expected ){
+        int capacity = DEFAULT_CAPACITY;
+        while( capacity / 2 < expected ){
+            capacity <<= 1;
+        }
+        allocate( capacity );
+    }
+
+    /**
+     * Returns the number of keys in the set.
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Returns true if the set contains the given key and false otherwise.
+     */
+    public boolean contains( long key ){
+        int i = index( key );
+        while( table[i] != EMPTY ){
+            if( table[i] == key ){
+                return true;
+            }
+            i = ( i + 1 ) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Adds the given key to the set. Returns true if it was added and false if it was
+     * already in the set.
+     */
+    public boolean add( long key ){
+        int i = index( key );
+        while( table[i] != EMPTY ){
+            if( table[i] == key ){
+                return false;
+            }
+            i = ( i + 1 ) & mask;
+        }
+        table[i] = key;
+        if( ++size > threshold ){
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Removes every key from the set while keeping the table for reuse.
+     */
+    public void clear(){
+        if( size > 0 ){
+            Arrays.fill( table, EMPTY );
+            size = 0;
+        }
+    }
+
+    /**
+     * Finds the starting slot for the given key.
+     */
+    private int index( long key ){
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) ( hash ^ ( hash >>> 32 ) ) & mask;
+    }
+
+    /**
+     * Creates an empty table with the given number of slots.
+     */
+    private void allocate( int capacity ){
+        table = new long[capacity];
+        mask = capacity - 1;
+        threshold = capacity / 2;
+    }
+
+    /**
+     * Doubles the table and reinserts all keys.
+     */
+    private void grow(){
+        long[] old = table;
+        allocate( old.length << 1 );
+        for( long key : old ){
+            if( key != EMPTY ){
+                int i = index( key );
+                while( table[i] != EMPTY ){
+                    i = ( i + 1 ) & mask;
+                }
+                table[i] = key;
+            }
+        }
+    }
+}
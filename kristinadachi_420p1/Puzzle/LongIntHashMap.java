@@ -0,0 +1,166 @@
+import java.util.Arrays;
+
+/**
+ * This class is a hash map from primitive long keys to int values that uses open
+ * addressing with linear probing (similar to LongHashSet). Removed keys are handled by
+ * shifting the following entries back, so no deleted markers are left in the table. The
+ * value 0 marks an empty slot since it is never a valid packed board. Clearing the map
+ * keeps the tables so it can be reused without allocating again.
+ */
+public class LongIntHashMap {
+    /* Value used to mark an empty slot */
+    private static final long EMPTY = 0L;
+    /* Default number of slots (must be a power of two) */
+    private static final int DEFAULT_CAPACITY = 1 << 10;
+
+    /* Contains the keys */
+    private long[] keys;
+    /* Contains the value for the key in the same slot */
+    private int[] values;
+    /* Number of keys in the map */
+    private int size;
+    /* Mask used to wrap indices around the table */
+    private int mask;
+    /* Number of keys allowed before the table is doubled */
+    private int threshold;
+
+    /* Constructor that creates a map with the default capacity */
+    public LongIntHashMap(){
+        this( DEFAULT_CAPACITY );
+    }
+
+    /* Constructor that creates a map able to hold the given number of keys */
+    public LongIntHashMap( int expected ){
+        int capacity = DEFAULT_CAPACITY;
+        while( capacity / 2 < expected ){
+            capacity <<= 1;
+        }
+        allocate( capacity );
+    }
+
+    /**
+     * Returns the number of keys in the map.
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Returns the value for the given key, or missing if the key is not in the map.
+     */
+    public int get( long key, int missing ){
+        int i = index( key );
+        while( keys[i] != EMPTY ){
+            if( keys[i] == key ){
+                return values[i];
+            }
+            i = ( i + 1 ) & mask;
+        }
+        return missing;
+    }
+
+    /**
+     * Maps the given key to the given value, replacing any previous value.
+     */
+    public void put( long key, int value ){
+        int i = index( key );
+        while( keys[i] != EMPTY ){
+            if( keys[i] == key ){
+                values[i] = value;
+                return;
+            }
+            i = ( i + 1 ) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if( ++size > threshold ){
+            grow();
+        }
+    }
+
+    /**
+     * Removes the given key from the map. Returns true if it was in the map and false
+     * otherwise.
+     */
+    public boolean remove( long key ){
+        int i = index( key );
+        while( keys[i] != EMPTY ){
+            if( keys[i] == key ){
+                shiftBack( i );
+                size--;
+                return true;
+            }
+            i = ( i + 1 ) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Removes every key from the map while keeping the tables for reuse.
+     */
+    public void clear(){
+        if( size > 0 ){
+            Arrays.fill( keys, EMPTY );
+            size = 0;
+        }
+    }
+
+    /**
+     * Finds the starting slot for the given key.
+     */
+    private int index( long key ){
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) ( hash ^ ( hash >>> 32 ) ) & mask;
+    }
+
+    /**
+     * Empties the given slot and moves back any following entries that would no longer
+     * be reachable from their starting slot.
+     */
+    private void shiftBack( int hole ){
+        int i = hole;
+        while( true ){
+            i = ( i + 1 ) & mask;
+            if( keys[i] == EMPTY ){
+                break;
+            }
+            int home = index( keys[i] );
+            /* The entry can fill the hole if its home slot is not between the hole and i */
+            if( ( ( i - home ) & mask ) >= ( ( i - hole ) & mask ) ){
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        keys[hole] = EMPTY;
+    }
+
+    /**
+     * Creates empty tables with the given number of slots.
+     */
+    private void allocate( int capacity ){
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        threshold = capacity / 2;
+    }
+
+    /**
+     * Doubles the tables and reinserts all entries.
+     */
+    private void grow(){
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate( oldKeys.length << 1 );
+        for( int j = 0; j < oldKeys.length; j++ ){
+            if( oldKeys[j] != EMPTY ){
+                int i = index( oldKeys[j] );
+                while( keys[i] != EMPTY ){
+                    i = ( i + 1 ) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * This class represents the second heuristic function, h2 = the sum of the distances of
+ * the tiles from their goal positions (Manhattan Distance). The distances come from the
+ * table in BoardSize, and a move only changes the distance of the moved tile.
+ */
+public class ManhattanDistance implements Heuristic {
+    /* Contains the size of the board */
+    private final BoardSize boardSize;
+
+    /* Constructor for a board of the given size */
+    public ManhattanDistance( BoardSize bs ){
+        boardSize = bs;
+    }
+
+    /**
+     * Returns the name of this heuristic.
+     */
+    public String getName(){
+        return "H2";
+    }
+
+    /**
+     * Returns the Manhattan distance of the given packed state.
+     */
+    public int estimate( long state ){
+        int distance = 0;
+        for( int i = 0; i < boardSize.getCells(); i++ ){
+            distance += boardSize.getDistance( BoardState.tileAt( state, i ), i );
+        }
+        return distance;
+    }
+
+    /**
+     * Returns the Manhattan distance of the given board.
+     */
+    public int estimate( int[] tiles ){
+        int distance = 0;
+        for( int i = 0; i < tiles.length; i++ ){
+            distance += boardSize.getDistance( tiles[i], i );
+        }
+        return distance;
+    }
+
+    /**
+     * Only the distance of the moved tile changes.
+     */
+    public int update( int h, long state, int tile, int from, int to ){
+        return h + boardSize.getDistance( tile, to ) - boardSize.getDistance( tile, from );
+    }
+
+    /**
+     * Only the distance of the moved tile changes.
+     */
+    public int update( int h, int[] tiles, int tile, int from, int to ){
+        return h + boardSize.getDistance( tile, to ) - boardSize.getDistance( tile, from );
+    }
+}
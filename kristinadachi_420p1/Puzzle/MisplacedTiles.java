@@ -0,0 +1,57 @@
+/**
+ * This class represents the first heuristic function, h1 = the number of misplaced
+ * tiles (the space is not counted). In the goal state, tile t is in cell t, so it works
+ * for any board size.
+ */
+public class MisplacedTiles implements Heuristic {
+    /**
+     * Returns the name of this heuristic.
+     */
+    public String getName(){
+        return "H1";
+    }
+
+    /**
+     * Returns the number of misplaced tiles in the given packed state.
+     */
+    public int estimate( long state ){
+        int count = 0;
+        for( int i = 0; i < BoardState.MAX_CELLS; i++ ){
+            count += misplaced( BoardState.tileAt( state, i ), i );
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of misplaced tiles on the given board.
+     */
+    public int estimate( int[] tiles ){
+        int count = 0;
+        for( int i = 0; i < tiles.length; i++ ){
+            count += misplaced( tiles[i], i );
+        }
+        return count;
+    }
+
+    /**
+     * Only the moved tile can change from misplaced to placed or the other way around.
+     */
+    public int update( int h, long state, int tile, int from, int to ){
+        return h + misplaced( tile, to ) - misplaced( tile, from );
+    }
+
+    /**
+     * Only the moved tile can change from misplaced to placed or the other way around.
+     */
+    public int update( int h, int[] tiles, int tile, int from, int to ){
+        return h + misplaced( tile, to ) - misplaced( tile, from );
+    }
+
+    /**
+     * Returns 1 if the given tile is misplaced when it is in the given cell and 0
+     * otherwise (the space is never counted).
+     */
+    private static int misplaced( int tile, int cell ){
+        return ( tile != 0 && tile != cell ) ? 1 : 0;
+    }
+}
@@ -0,0 +1,594 @@
+import java.io.DataOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * This class represents a disjoint additive pattern database heuristic. The tiles are
+ * split into groups (patterns), and for every pattern a table stores the number of
+ * moves of its own tiles needed to bring them to their goal positions, for every way
+ * the pattern tiles can be placed on the board and every region of the other cells the
+ * space can be in. Since each move only moves one tile, the values of the different
+ * patterns can be added and the sum is still admissible. It is always at least as high
+ * as the Manhattan distance (h2).
+ *
+ * The pattern tiles can cut the other cells into separate regions (for example two
+ * tiles next to a corner), and the space cannot get from one region to another without
+ * moving a pattern tile. Taking the lowest value over all regions would still be
+ * admissible, but then one move could lower h(n) by more than one, and the searches
+ * never reopen an explored state (see Heuristic), so the value is kept for the region
+ * of the space. This makes the heuristic consistent.
+ *
+ * The tables are built by a breadth-first search backwards from the goal (see build),
+ * stored in a binary file, and loaded through a memory-mapped FileChannel so they do
+ * not have to be rebuilt or read into the heap on startup. An entry is found by ranking
+ * the positions of the pattern tiles, so a pattern of k tiles on a board with n cells
+ * uses n!/(n-k)! bytes (5,765,760 for a 6 tile pattern of the 15-puzzle) for the value
+ * of the largest region of each placement. The other regions with a different value
+ * are listed separately, sorted by placement and the first cell of the region, and the
+ * entry of their placement is flagged. The space is nearly always in the largest
+ * region, so the list is only searched when the entry is flagged and the region of the
+ * space has at most half of the free cells. The list has an index of where every block
+ * of 2^BUCKET_BITS keys starts, so only a few keys are looked at, and each region only
+ * needs the last bits of its key and its value (two bytes). For the default 15-puzzle
+ * partition the tables take 11.5 MB and the lists (about 4.5 million regions) 11.8 MB.
+ */
+public class PatternDatabase implements Heuristic {
+    /* Used to recognize a pattern database file */
+    private static final int MAGIC = 0x50444232;
+    /* Set in an entry whose placement has regions with a different value */
+    private static final int REGIONS = 0x80;
+    /* Number of bits of a key that are not used to find its block in the index (the
+     * bits kept in the list) */
+    private static final int BUCKET_BITS = 8;
+
+    /* Default partition for the 8-puzzle (4-4) */
+    private static final int[][] PATTERNS_3 = {{1, 2, 3, 4}, {5, 6, 7, 8}};
+    /* Default partition for the 15-puzzle (6-6-3): the top row, then the left and
+     * right halves of the other three rows */
+    private static final int[][] PATTERNS_4 = {{1, 2, 3},
+                                               {4, 5, 8, 9, 12, 13},
+                                               {6, 7, 10, 11, 14, 15}};
+
+    /* Contains the size of the board */
+    private BoardSize boardSize;
+    /* Tiles in each pattern */
+    private int[][] patterns;
+    /* Table of each pattern, indexed by the rank of the positions of its tiles */
+    private ByteBuffer[] tables;
+    /* Regions of each pattern with a different value than their entry in the table: the
+     * index (where the regions of every block start, as ints), then the regions in
+     * order of their keys (rank * cells + first cell of the region), each as a short
+     * with the last BUCKET_BITS bits of its key and its value */
+    private ByteBuffer[] regions;
+    /* Number of blocks in the index of each list (plus one) */
+    private int[] blocks;
+    /* Cells in the first and in the last column of the board */
+    private int firstColumn;
+    private int lastColumn;
+
+    /* Constructor used once the tables are built or mapped */
+    private PatternDatabase( BoardSize bs, int[][] p, ByteBuffer[] t, ByteBuffer[] r ){
+        boardSize = bs;
+        patterns = p;
+        tables = t;
+        regions = r;
+        blocks = new int[p.length];
+        for( int i = 0; i < p.length; i++ ){
+            blocks[i] = blocks( t[i].capacity(), bs.getCells() );
+        }
+        firstColumn = column( bs, 0 );
+        lastColumn = column( bs, bs.getWidth() - 1 );
+    }
+
+    /**
+     * Returns the name of this heuristic.
+     */
+    public String getName(){
+        return "PDB";
+    }
+
+    /**
+     * Returns the default partition of the tiles for the given size, or null if there is
+     * none (only the 8-puzzle and the 15-puzzle have one).
+     */
+    public static int[][] defaultPatterns( BoardSize bs ){
+        switch( bs.getWidth() ){
+            case 3:
+                return PATTERNS_3;
+            case 4:
+                return PATTERNS_4;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Returns the pattern database for the given size using the default partition. It
+     * is loaded from the file in the given directory if it exists and otherwise built
+     * and saved there first (a file in an older format is built again).
+     */
+    public static PatternDatabase open( BoardSize bs, File dir ) throws IOException {
+        int[][] p = defaultPatterns( bs );
+        if( p == null ){
+            throw new IllegalArgumentException( "No default patterns for width " + bs.getWidth() );
+        }
+        File file = new File( dir, "pdb-" + bs.getWidth() + "x" + bs.getWidth() + ".bin" );
+        if( !file.exists() || !isCurrent( file ) ){
+            build( bs, p ).save( file );
+        }
+        return load( file );
+    }
+
+    /**
+     * Returns true if the given file is a pattern database in the current format.
+     */
+    private static boolean isCurrent( File file ) throws IOException {
+        try( RandomAccessFile raf = new RandomAccessFile( file, "r" ) ){
+            return raf.length() >= 4 && raf.readInt() == MAGIC;
+        }
+    }
+
+    /**
+     * Loads the pattern database from the given file. Each table and list of regions is
+     * memory-mapped instead of being read into the heap.
+     */
+    public static PatternDatabase load( File file ) throws IOException {
+        try( RandomAccessFile raf = new RandomAccessFile( file, "r" );
+             FileChannel channel = raf.getChannel() ){
+            if( raf.readInt() != MAGIC ){
+                throw new IOException( "Not a pattern database: " + file );
+            }
+            BoardSize bs = new BoardSize( raf.readInt() );
+            int[][] p = new int[raf.readInt()][];
+            ByteBuffer[] t = new ByteBuffer[p.length];
+            ByteBuffer[] r = new ByteBuffer[p.length];
+            for( int i = 0; i < p.length; i++ ){
+                p[i] = new int[raf.readInt()];
+                for( int j = 0; j < p[i].length; j++ ){
+                    p[i][j] = raf.readInt();
+                }
+                t[i] = map( raf, channel );
+                r[i] = map( raf, channel );
+            }
+            return new PatternDatabase( bs, p, t, r );
+        }
+    }
+
+    /**
+     * Maps the block that starts at the file pointer (its length, then its bytes) and
+     * moves the file pointer past it.
+     */
+    private static MappedByteBuffer map( RandomAccessFile raf, FileChannel channel ) throws IOException {
+        int length = raf.readInt();
+        MappedByteBuffer block = channel.map( FileChannel.MapMode.READ_ONLY, raf.getFilePointer(), length );
+        raf.seek( raf.getFilePointer() + length );
+        return block;
+    }
+
+    /**
+     * Saves the pattern database to the given file.
+     */
+    public void save( File file ) throws IOException {
+        try( DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( file ) ) ) ){
+            out.writeInt( MAGIC );
+            out.writeInt( boardSize.getWidth() );
+            out.writeInt( patterns.length );
+            for( int i = 0; i < patterns.length; i++ ){
+                out.writeInt( patterns[i].length );
+                for( int tile : patterns[i] ){
+                    out.writeInt( tile );
+                }
+                write( out, tables[i] );
+                write( out, regions[i] );
+            }
+        }
+    }
+
+    /**
+     * Writes the length of the given buffer and then its bytes.
+     */
+    private static void write( DataOutputStream out, ByteBuffer buffer ) throws IOException {
+        int length = buffer.capacity();
+        out.writeInt( length );
+        for( int j = 0; j < length; j++ ){
+            out.write( buffer.get( j ) );
+        }
+    }
+
+    /**
+     * Builds the pattern database for the given size and partition. Every tile other
+     * than the space must be in exactly one pattern.
+     */
+    public static PatternDatabase build( BoardSize bs, int[][] p ){
+        if( !bs.isPackable() ){
+            throw new IllegalArgumentException( "Board is too large: " + bs.getWidth() );
+        }
+        ByteBuffer[] t = new ByteBuffer[p.length];
+        ByteBuffer[] r = new ByteBuffer[p.length];
+        for( int i = 0; i < p.length; i++ ){
+            ByteBuffer[] built = buildTable( bs, p[i] );
+            t[i] = built[0];
+            r[i] = built[1];
+        }
+        return new PatternDatabase( bs, p, t, r );
+    }
+
+    /**
+     * Builds the table of one pattern with a breadth-first search from the goal. A state
+     * is the positions of the pattern tiles plus the cell of the space. Moving the space
+     * onto a non-pattern cell costs nothing, and moving a pattern tile costs one move, so
+     * each layer is first closed under the free moves before the next layer is found,
+     * and every cell of a region gets the same cost. The cost of a region is kept when
+     * its first cell is reached: the entry for a placement of the pattern tiles is the
+     * cost of its largest region, and the other regions whose cost is different are
+     * added to the list of regions. Returns the table and the list of regions.
+     */
+    private static ByteBuffer[] buildTable( BoardSize bs, int[] pattern ){
+        int cells = bs.getCells();
+        int width = bs.getWidth();
+        int first = column( bs, 0 );
+        int last = column( bs, width - 1 );
+        int all = ( 1 << cells ) - 1;
+        /* Regions that are not the largest, as ( rank * cells + first cell ) << 8 | cost */
+        LongList others = new LongList();
+        int k = pattern.length;
+        int entries = permutations( cells, k );
+        byte[] table = new byte[entries];
+        Arrays.fill( table, (byte) -1 );
+        long[] visited = new long[(int) ( ( (long) entries * cells + 63 ) / 64 )];
+
+        int[] pos = new int[k];
+        for( int i = 0; i < k; i++ ){
+            pos[i] = pattern[i];
+        }
+        IntList layer = new IntList();
+        IntList next = new IntList();
+        boolean[] occupied = new boolean[cells];
+        /* In the goal, the pattern tiles are in place and the space can be anywhere else */
+        int goal = rank( pos, cells );
+        mark( occupied, pos, true );
+        for( int blank = 0; blank < cells; blank++ ){
+            int s = goal * cells + blank;
+            if( !occupied[blank] ){
+                visited[s >>> 6] |= 1L << s;
+                layer.add( s );
+            }
+        }
+        mark( occupied, pos, false );
+
+        int cost = 0;
+        while( layer.size > 0 ){
+            /* Closes the layer under moves of the space onto non-pattern cells */
+            for( int i = 0; i < layer.size; i++ ){
+                int state = layer.data[i];
+                int r = state / cells;
+                int blank = state % cells;
+                unrank( r, cells, pos );
+                int free = all & ~mask( pos );
+                int reach = region( free, blank, width, first, last );
+                if( Integer.numberOfTrailingZeros( reach ) == blank ){
+                    if( isLargest( free, reach, width, first, last ) ){
+                        table[r] = (byte) cost;
+                    }
+                    else{
+                        others.add( ( (long) state << 8 ) | cost );
+                    }
+                }
+                mark( occupied, pos, true );
+                for( int to : bs.getNeighbors( blank ) ){
+                    int s = r * cells + to;
+                    if( !occupied[to] && ( visited[s >>> 6] & ( 1L << s ) ) == 0 ){
+                        visited[s >>> 6] |= 1L << s;
+                        layer.add( s );
+                    }
+                }
+                mark( occupied, pos, false );
+            }
+
+            /* Finds the next layer by moving a pattern tile into the space */
+            next.size = 0;
+            for( int i = 0; i < layer.size; i++ ){
+                int state = layer.data[i];
+                int blank = state % cells;
+                unrank( state / cells, cells, pos );
+                for( int to : bs.getNeighbors( blank ) ){
+                    for( int j = 0; j < k; j++ ){
+                        if( pos[j] == to ){
+                            pos[j] = blank;
+                            int s = rank( pos, cells ) * cells + to;
+                            pos[j] = to;
+                            if( ( visited[s >>> 6] & ( 1L << s ) ) == 0 ){
+                                visited[s >>> 6] |= 1L << s;
+                                next.add( s );
+                            }
+                        }
+                    }
+                }
+            }
+
+            IntList swap = layer;
+            layer = next;
+            next = swap;
+            cost++;
+        }
+
+        /* Placements that cannot be reached (only from unsolvable boards) get 0 */
+        for( int r = 0; r < entries; r++ ){
+            if( table[r] == -1 ){
+                table[r] = 0;
+            }
+        }
+        /* Only the regions whose cost is not the cost of the largest one are kept */
+        int count = 0;
+        for( int i = 0; i < others.size; i++ ){
+            long region = others.data[i];
+            if( (byte) region != table[(int) ( region >>> 8 ) / cells] ){
+                others.data[count++] = region;
+            }
+        }
+        long[] sorted = Arrays.copyOf( others.data, count );
+        Arrays.sort( sorted );
+        int blocks = blocks( entries, cells );
+        ByteBuffer list = ByteBuffer.allocate( blocks * 4 + count * 2 );
+        int block = 0;
+        int low = ( 1 << BUCKET_BITS ) - 1;
+        for( int i = 0; i < count; i++ ){
+            int key = (int) ( sorted[i] >>> 8 );
+            while( block <= key >>> BUCKET_BITS ){
+                list.putInt( block++ * 4, i );
+            }
+            list.putShort( blocks * 4 + i * 2, (short) ( ( key & low ) << 8 | ( sorted[i] & 0xFF ) ) );
+            table[key / cells] |= REGIONS;
+        }
+        while( block < blocks ){
+            list.putInt( block++ * 4, count );
+        }
+        return new ByteBuffer[] {ByteBuffer.wrap( table ), list};
+    }
+
+    /**
+     * Returns the number of blocks in the index of a list of regions (one more than the
+     * number of blocks of keys, so every block also has an end) for a table with the
+     * given number of entries.
+     */
+    private static int blocks( int entries, int cells ){
+        return (int) ( ( (long) entries * cells - 1 >>> BUCKET_BITS ) + 2 );
+    }
+
+    /**
+     * Returns true if the given region has more of the given free cells than any other
+     * region, or as many and a lower first cell.
+     */
+    private static boolean isLargest( int free, int reach, int width, int first, int last ){
+        int size = Integer.bitCount( reach );
+        int rest = free & ~reach;
+        while( rest != 0 ){
+            int other = region( free, Integer.numberOfTrailingZeros( rest ), width, first, last );
+            int count = Integer.bitCount( other );
+            if( count > size || ( count == size && Integer.numberOfTrailingZeros( other ) < Integer.numberOfTrailingZeros( reach ) ) ){
+                return false;
+            }
+            rest &= ~other;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the cells in the given column of the board as a bit mask.
+     */
+    private static int column( BoardSize bs, int col ){
+        int width = bs.getWidth();
+        int mask = 0;
+        for( int row = 0; row < width; row++ ){
+            mask |= 1 << ( row * width + col );
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the given positions as a bit mask of cells.
+     */
+    private static int mask( int[] pos ){
+        int mask = 0;
+        for( int p : pos ){
+            mask |= 1 << p;
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the region of the given free cells (a bit mask) that contains the given
+     * cell: every free cell that can be reached from it through free cells. The first
+     * and last masks are the cells in the first and last column, which have no
+     * neighbor to their left or right.
+     */
+    private static int region( int free, int cell, int width, int first, int last ){
+        int reach = 1 << cell;
+        while( true ){
+            int grow = reach | ( reach << width ) | ( reach >>> width )
+                    | ( ( reach & ~last ) << 1 ) | ( ( reach & ~first ) >>> 1 );
+            grow &= free;
+            if( grow == reach ){
+                return reach;
+            }
+            reach = grow;
+        }
+    }
+
+    /**
+     * Sets the cells of the given positions to the given value.
+     */
+    private static void mark( boolean[] occupied, int[] pos, boolean value ){
+        for( int p : pos ){
+            occupied[p] = value;
+        }
+    }
+
+    /**
+     * Returns the number of ways to place k distinct tiles on n cells.
+     */
+    private static int permutations( int n, int k ){
+        long count = 1;
+        for( int i = 0; i < k; i++ ){
+            count *= n - i;
+        }
+        if( count * n > Integer.MAX_VALUE ){
+            throw new IllegalArgumentException( "Pattern is too large: " + k + " tiles" );
+        }
+        return (int) count;
+    }
+
+    /**
+     * Returns the rank of the given positions (distinct cells out of n). Each position
+     * is counted among the cells not used by the positions before it.
+     */
+    private static int rank( int[] pos, int n ){
+        int r = 0;
+        int used = 0;
+        for( int i = 0; i < pos.length; i++ ){
+            int p = pos[i];
+            r = r * ( n - i ) + p - Integer.bitCount( used & ( ( 1 << p ) - 1 ) );
+            used |= 1 << p;
+        }
+        return r;
+    }
+
+    /**
+     * Finds the positions with the given rank (the reverse of rank).
+     */
+    private static void unrank( int r, int n, int[] pos ){
+        int k = pos.length;
+        for( int i = k - 1; i >= 0; i-- ){
+            int base = n - i;
+            pos[i] = r % base;
+            r /= base;
+        }
+        int used = 0;
+        for( int i = 0; i < k; i++ ){
+            /* Finds the (pos[i])-th cell that is not used yet */
+            int digit = pos[i];
+            int p = 0;
+            while( true ){
+                if( ( used & ( 1 << p ) ) == 0 ){
+                    if( digit == 0 ){
+                        break;
+                    }
+                    digit--;
+                }
+                p++;
+            }
+            pos[i] = p;
+            used |= 1 << p;
+        }
+    }
+
+    /**
+     * Returns the heuristic value of the given packed state: the sum of the values of
+     * all patterns for their placement and the region of the space.
+     */
+    public int estimate( long state ){
+        int cells = boardSize.getCells();
+        /* Cell of every tile, 4 bits per tile */
+        long where = 0;
+        for( int i = 0; i < cells; i++ ){
+            where |= ( (long) i ) << ( BoardState.tileAt( state, i ) * 4 );
+        }
+
+        int h = 0;
+        for( int i = 0; i < patterns.length; i++ ){
+            int[] pattern = patterns[i];
+            int r = 0;
+            int used = 0;
+            for( int j = 0; j < pattern.length; j++ ){
+                int p = (int) ( ( where >>> ( pattern[j] * 4 ) ) & 0xF );
+                r = r * ( cells - j ) + p - Integer.bitCount( used & ( ( 1 << p ) - 1 ) );
+                used |= 1 << p;
+            }
+            int entry = tables[i].get( r ) & 0xFF;
+            if( ( entry & REGIONS ) != 0 ){
+                entry &= ~REGIONS;
+                int free = ( ( 1 << cells ) - 1 ) & ~used;
+                int reach = region( free, (int) ( where & 0xF ), boardSize.getWidth(), firstColumn, lastColumn );
+                /* A region with more than half of the free cells is the largest one */
+                if( Integer.bitCount( reach ) * 2 <= Integer.bitCount( free ) ){
+                    entry = find( i, r * cells + Integer.numberOfTrailingZeros( reach ), entry );
+                }
+            }
+            h += entry;
+        }
+        return h;
+    }
+
+    /**
+     * Returns the value of the given key in the list of regions of the given pattern, or
+     * the given value of the largest region if it is not there (the region has the same
+     * value).
+     */
+    private int find( int pattern, int key, int largest ){
+        ByteBuffer list = regions[pattern];
+        int start = blocks[pattern] * 4;
+        int block = key >>> BUCKET_BITS;
+        int k = key & ( ( 1 << BUCKET_BITS ) - 1 );
+        int end = list.getInt( block * 4 + 4 );
+        for( int j = list.getInt( block * 4 ); j < end; j++ ){
+            int region = list.getShort( start + j * 2 ) & 0xFFFF;
+            if( region >>> 8 == k ){
+                return region & 0xFF;
+            }
+            if( region >>> 8 > k ){
+                break;
+            }
+        }
+        return largest;
+    }
+
+    /**
+     * Returns the heuristic value of the given board, which is stored row by row.
+     */
+    public int estimate( int[] tiles ){
+        long state = 0;
+        for( int i = 0; i < tiles.length; i++ ){
+            state |= ( (long) tiles[i] ) << ( i * 4 );
+        }
+        return estimate( state );
+    }
+
+    /**
+     * This class is a growable list of longs used for the regions found by the
+     * breadth-first search.
+     */
+    private static class LongList {
+        private long[] data = new long[1024];
+        private int size = 0;
+
+        private void add( long value ){
+            if( size == data.length ){
+                data = Arrays.copyOf( data, size << 1 );
+            }
+            data[size++] = value;
+        }
+    }
+
+    /**
+     * This class is a growable list of ints used for the layers of the breadth-first
+     * search.
+     */
+    private static class IntList {
+        private int[] data = new int[1024];
+        private int size = 0;
+
+        private void add( int value ){
+            if( size == data.length ){
+                data = Arrays.copyOf( data, size << 1 );
+            }
+            data[size++] = value;
+        }
+    }
+}
@@ -1,8 +1,18 @@
 /**
- * This class contains the main method and starts the program.
+ * This class contains the main method and starts the program. With the argument -batch,
+ * puzzles are solved without any user interaction (see BatchSolver), and with the
+ * argument -generate, random puzzles are printed (see PuzzleGenerator).
  */
 public class Puzzle {
     public static void main( String args[] ){
+        if( args.length > 0 && args[0].equals( "-batch" ) ){
+            BatchSolver.run( args );
+            return;
+        }
+        if( args.length > 0 && args[0].equals( "-generate" ) ){
+            PuzzleGenerator.run( args );
+            return;
+        }
         UI ui = new UI();
         ui.start();
     }
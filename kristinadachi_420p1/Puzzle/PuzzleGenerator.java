@@ -0,0 +1,215 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.SplittableRandom;
+
+/**
+ * This class generates random, solvable puzzles from a seed, so the same seed always
+ * gives the same puzzles. The tiles are shuffled with a Fisher-Yates shuffle, which
+ * makes every order equally likely. Half of the orders cannot be solved, but whether an
+ * order can be solved only depends on the parity of the shuffle and the cell of the
+ * space (see BoardSize.isSolvable), so instead of counting inversions the shuffle keeps
+ * track of its parity. If the order cannot be solved, two tiles (not the space) are
+ * swapped, which makes it solvable. Every solvable puzzle is then made by exactly two
+ * orders, so they are all equally likely.
+ *
+ * With a distance table (see DistanceTable), puzzles that need an exact number of
+ * moves can also be generated. They are picked from the entries of the table with that
+ * number of moves, so they are equally likely too.
+ *
+ * A generator is not thread-safe; each thread should have its own (with its own seed).
+ */
+public class PuzzleGenerator {
+    /* Contains the size of the board */
+    private final BoardSize boardSize;
+    /* Source of the random numbers */
+    private final SplittableRandom random;
+    /* Used to generate puzzles that need an exact number of moves (can be null) */
+    private final DistanceTable table;
+    /* Entries of the table for each number of moves, found when first needed */
+    private final int[][] entries;
+
+    /* Constructor that generates puzzles of the given size from the given seed */
+    public PuzzleGenerator( BoardSize bs, long seed ){
+        this( bs, null, seed );
+    }
+
+    /* Constructor that can also generate puzzles of the size of the given table that
+     * need an exact number of moves */
+    public PuzzleGenerator( DistanceTable dt, long seed ){
+        this( dt.getBoardSize(), dt, seed );
+    }
+
+    /* Constructor used by the others */
+    private PuzzleGenerator( BoardSize bs, DistanceTable dt, long seed ){
+        boardSize = bs;
+        random = new SplittableRandom( seed );
+        table = dt;
+        entries = new int[Byte.MAX_VALUE + 1][];
+    }
+
+    /**
+     * Returns the size of the puzzles generated.
+     */
+    public BoardSize getBoardSize(){
+        return boardSize;
+    }
+
+    /**
+     * Returns a new random, solvable puzzle (stored row by row).
+     */
+    public int[] next(){
+        int[] tiles = new int[boardSize.getCells()];
+        next( tiles );
+        return tiles;
+    }
+
+    /**
+     * Fills the given array with a random, solvable puzzle (stored row by row). The
+     * array must have one element for each cell.
+     */
+    public void next( int[] tiles ){
+        int cells = boardSize.getCells();
+        for( int i = 0; i < cells; i++ ){
+            tiles[i] = i;
+        }
+
+        /* Every swap of two different cells changes the parity of the order */
+        boolean odd = false;
+        for( int i = cells - 1; i > 0; i-- ){
+            int j = random.nextInt( i + 1 );
+            if( j != i ){
+                int t = tiles[i];
+                tiles[i] = tiles[j];
+                tiles[j] = t;
+                odd = !odd;
+            }
+        }
+
+        int blank = 0;
+        while( tiles[blank] != 0 ){
+            blank++;
+        }
+        /* The space is smaller than every tile before it, so the parity of the
+         * inversions of the tiles is the parity of the order plus the cell of the space */
+        int inversions = ( odd ? 1 : 0 ) + blank;
+        int width = boardSize.getWidth();
+        if( width % 2 == 0 ){
+            inversions += blank / width;
+        }
+        if( inversions % 2 != 0 ){
+            int a = blank == 0 ? 1 : 0;
+            int b = blank <= 1 ? 2 : 1;
+            int t = tiles[a];
+            tiles[a] = tiles[b];
+            tiles[b] = t;
+        }
+    }
+
+    /**
+     * Returns a new random, solvable puzzle packed into a long (see BoardState).
+     */
+    public long nextState(){
+        if( !boardSize.isPackable() ){
+            throw new IllegalArgumentException( "Board is too large to pack: " + boardSize.getWidth() );
+        }
+        int[] tiles = new int[boardSize.getCells()];
+        next( tiles );
+        long state = 0;
+        for( int i = 0; i < tiles.length; i++ ){
+            state |= ( (long) tiles[i] ) << ( i * 4 );
+        }
+        return state;
+    }
+
+    /**
+     * Returns a new random puzzle packed into a long that needs exactly the given number
+     * of moves. The generator must have a distance table, and there must be puzzles that
+     * need that many moves.
+     */
+    public long nextState( int moves ){
+        if( table == null ){
+            throw new IllegalStateException( "Generator has no distance table" );
+        }
+        if( moves < 0 || moves >= entries.length ){
+            throw new IllegalArgumentException( "No puzzles need " + moves + " moves" );
+        }
+        if( entries[moves] == null ){
+            entries[moves] = table.findEntries( moves );
+        }
+        int[] found = entries[moves];
+        if( found.length == 0 ){
+            throw new IllegalArgumentException( "No puzzles need " + moves + " moves" );
+        }
+        return table.getState( found[random.nextInt( found.length )] );
+    }
+
+    /**
+     * Prints random puzzles, one per line, in the format read by BatchSolver. The
+     * arguments are:
+     *    -w width: width of the board (3 by default)
+     *    -d moves: only generate puzzles that need this many moves (boards up to 3x3,
+     *              see DistanceTable)
+     *    -s seed: seed of the puzzles (the time by default; it is printed so the
+     *             puzzles can be generated again)
+     *    and the number of puzzles (1 by default).
+     */
+    public static void run( String[] args ){
+        int width = 3;
+        int moves = -1;
+        long seed = System.nanoTime();
+        long count = 1;
+        for( int i = 0; i < args.length; i++ ){
+            if( args[i].equals( "-w" ) && i + 1 < args.length ){
+                width = Integer.parseInt( args[++i] );
+            }
+            else if( args[i].equals( "-d" ) && i + 1 < args.length ){
+                moves = Integer.parseInt( args[++i] );
+            }
+            else if( args[i].equals( "-s" ) && i + 1 < args.length ){
+                seed = Long.parseLong( args[++i] );
+            }
+            else if( !args[i].equals( "-generate" ) ){
+                count = Long.parseLong( args[i] );
+            }
+        }
+
+        PrintWriter out = new PrintWriter( new BufferedWriter( new OutputStreamWriter( System.out ), 1 << 16 ) );
+        try {
+            BoardSize bs = new BoardSize( width );
+            PuzzleGenerator generator = moves < 0 ? new PuzzleGenerator( bs, seed )
+                    : new PuzzleGenerator( DistanceTable.open( bs, new File( "." ) ), seed );
+            int cells = bs.getCells();
+            int[] tiles = new int[cells];
+            StringBuilder line = new StringBuilder();
+            for( long n = 0; n < count; n++ ){
+                if( moves < 0 ){
+                    generator.next( tiles );
+                }
+                else{
+                    long state = generator.nextState( moves );
+                    for( int i = 0; i < cells; i++ ){
+                        tiles[i] = BoardState.tileAt( state, i );
+                    }
+                }
+                line.setLength( 0 );
+                for( int i = 0; i < cells; i++ ){
+                    if( i > 0 ){
+                        line.append( ' ' );
+                    }
+                    line.append( tiles[i] );
+                }
+                out.println( line );
+            }
+            System.err.println( "Generated " + count + " puzzles with seed " + seed );
+        }
+        catch( IOException | IllegalArgumentException e ){
+            System.err.println( e.getMessage() );
+        }
+        finally {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.Arrays;
+
+/**
+ * This class is a set of the packed states of a small board (up to 3x3) stored as one bit
+ * for every solvable state. A state is found by its entry in a DistanceTable (the cell of
+ * the space and half the rank of the order of the other tiles), so the 181,440 states of
+ * the 8-puzzle take 22 KB no matter how many of them are in the set, while a LongHashSet
+ * holding all of them takes 4 MB.
+ *
+ * The entries only tell apart the states of one parity: a state and the state with its
+ * last two tiles swapped have the same entry. Since a move never changes the parity, all
+ * the states reached from one puzzle have different entries, which is all a search needs
+ * as long as the set is cleared before the next puzzle.
+ */
+public class RankedStateSet implements StateSet {
+    /* Largest number of cells supported (a 3x3 board) */
+    static final int MAX_CELLS = 9;
+
+    /* Number of cells of the board */
+    private final int cells;
+    /* Number of entries for each cell of the space: (cells - 1)! / 2 */
+    private final int orders;
+    /* Contains one bit for every entry */
+    private final long[] bits;
+    /* Number of states in the set */
+    private int size;
+
+    /* Constructor that creates an empty set for states of the given size */
+    public RankedStateSet( BoardSize bs ){
+        cells = bs.getCells();
+        if( cells > MAX_CELLS ){
+            throw new IllegalArgumentException( "Ranked state sets only support boards up to 3x3" );
+        }
+        int entries = DistanceTable.entries( cells );
+        orders = entries / cells;
+        bits = new long[( entries + 63 ) >>> 6];
+        size = 0;
+    }
+
+    /**
+     * Returns the number of states in the set.
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Returns true if the set contains the given state and false otherwise.
+     */
+    public boolean contains( long state ){
+        int i = DistanceTable.index( state, cells, orders );
+        return ( bits[i >>> 6] & ( 1L << i ) ) != 0;
+    }
+
+    /**
+     * Adds the given state to the set. Returns true if it was added and false if it was
+     * already in the set.
+     */
+    public boolean add( long state ){
+        int i = DistanceTable.index( state, cells, orders );
+        long word = bits[i >>> 6];
+        long bit = 1L << i;
+        if( ( word & bit ) != 0 ){
+            return false;
+        }
+        bits[i >>> 6] = word | bit;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes every state from the set while keeping the bits for reuse.
+     */
+    public void clear(){
+        if( size > 0 ){
+            Arrays.fill( bits, 0L );
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class contains the limits of one search (see AStarSearch.withBudget): the time it
+ * may take, the number of nodes it may generate, and the memory it may use. A search
+ * that reaches one of its limits stops and returns a result with the reason it stopped
+ * and the path to the node it found closest to the goal (see SearchResult.getStatus).
+ *
+ * The memory of a search is estimated from the number of nodes in its frontier and
+ * explored set, using NODE_BYTES for each node (the BoardNode itself and its entries in
+ * the frontier and the hash tables), instead of asking the JVM, which only knows the
+ * memory of all threads together. A budget never changes once it is made; the with
+ * methods return a new one.
+ */
+public class SearchBudget {
+    /* Budget without any limits */
+    public static final SearchBudget UNLIMITED = new SearchBudget( Long.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE );
+    /* Estimated number of bytes used by every node that is kept */
+    public static final int NODE_BYTES = 96;
+
+    /* Longest time the search may take in nanoseconds */
+    private final long time;
+    /* Largest number of nodes the search may generate */
+    private final int nodes;
+    /* Largest number of bytes the nodes of the search may use */
+    private final long memory;
+
+    private SearchBudget( long t, int n, long m ){
+        time = t;
+        nodes = n;
+        memory = m;
+    }
+
+    /**
+     * Returns a budget with the same limits and the given time limit.
+     */
+    public SearchBudget withTimeLimit( long t, TimeUnit unit ){
+        return new SearchBudget( unit.toNanos( t ), nodes, memory );
+    }
+
+    /**
+     * Returns a budget with the same limits and the given limit on the number of nodes
+     * generated.
+     */
+    public SearchBudget withNodeLimit( int n ){
+        return new SearchBudget( time, n, memory );
+    }
+
+    /**
+     * Returns a budget with the same limits and the given limit on the estimated memory
+     * in bytes.
+     */
+    public SearchBudget withMemoryLimit( long bytes ){
+        return new SearchBudget( time, nodes, bytes );
+    }
+
+    /**
+     * Returns the longest time the search may take in nanoseconds.
+     */
+    public long getTimeLimit(){
+        return time;
+    }
+
+    /**
+     * Returns the largest number of nodes the search may generate.
+     */
+    public int getNodeLimit(){
+        return nodes;
+    }
+
+    /**
+     * Returns the largest estimated memory the search may use in bytes.
+     */
+    public long getMemoryLimit(){
+        return memory;
+    }
+
+    /**
+     * Returns the reason a search that began at the given time (a value of
+     * System.nanoTime), generated the given number of nodes, and keeps the given number
+     * of nodes must stop, or null if it is still within this budget. The clock is only
+     * read if checkTime is true, since reading it after every node would slow the search
+     * down.
+     */
+    public SearchResult.Status check( long begin, int generated, int kept, boolean checkTime ){
+        if( generated > nodes ){
+            return SearchResult.Status.NODE_LIMIT;
+        }
+        if( (long) kept * NODE_BYTES > memory ){
+            return SearchResult.Status.MEMORY_LIMIT;
+        }
+        if( checkTime && System.nanoTime() - begin > time ){
+            return SearchResult.Status.TIME_LIMIT;
+        }
+        return null;
+    }
+}
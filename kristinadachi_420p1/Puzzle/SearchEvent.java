@@ -0,0 +1,66 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This class is a Java Flight Recorder event that is recorded for every A* search while
+ * a recording with it enabled is running (for example with
+ * -XX:StartFlightRecording), so the statistics of slow searches (see SearchMetrics) can
+ * be seen without attaching a profiler. Creating the first event sets up the recorder,
+ * which takes a few hundred milliseconds, so AStarSearch only creates events once the
+ * recorder has been set up by a recording (see FlightRecorder.isInitialized). Until then
+ * searches do not touch this class at all.
+ */
+@Name( "puzzle.AStarSearch" )
+@Label( "A* Search" )
+@Category( "Puzzle" )
+@Description( "Statistics of one A* search" )
+public class SearchEvent extends Event {
+    @Label( "Heuristic" )
+    String heuristic;
+
+    @Label( "Status" )
+    String status;
+
+    @Label( "Moves" )
+    int depth;
+
+    @Label( "Nodes Expanded" )
+    int expanded;
+
+    @Label( "Nodes Generated" )
+    int generated;
+
+    @Label( "Duplicates Rejected" )
+    int duplicates;
+
+    @Label( "Peak Frontier Size" )
+    int peakFrontier;
+
+    @Label( "Explored Set Size" )
+    int explored;
+
+    @Label( "Effective Branching Factor" )
+    double branchingFactor;
+
+    @Label( "Heuristic Time (ns)" )
+    long heuristicTime;
+
+    /**
+     * Copies the given statistics into this event.
+     */
+    void set( String name, SearchResult.Status s, SearchMetrics m ){
+        heuristic = name;
+        status = s.name();
+        depth = m.getDepth();
+        expanded = m.getExpanded();
+        generated = m.getGenerated();
+        duplicates = m.getDuplicates();
+        peakFrontier = m.getPeakFrontier();
+        explored = m.getExplored();
+        branchingFactor = m.getBranchingFactor();
+        heuristicTime = m.getHeuristicTime();
+    }
+}
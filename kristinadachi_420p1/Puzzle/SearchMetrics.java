@@ -0,0 +1,142 @@
+/**
+ * This class contains the statistics of one A* search (see SearchResult.getMetrics):
+ *    - expanded: nodes taken from the frontier and expanded
+ *    - generated: nodes added to the frontier (including the root)
+ *    - duplicates: children that were not added because their state was explored or
+ *                  already in the frontier at the same or a lower cost
+ *    - peak frontier: largest number of nodes in the frontier at once
+ *    - explored: number of states in the explored set at the end
+ *    - time: time the search took, and the part of it spent in the heuristic (only
+ *            measured if the search was asked to, see AStarSearch.withHeuristicTiming)
+ * The effective branching factor is found from the number of nodes generated and the
+ * length of the solution. A SearchMetrics never changes once it is made.
+ */
+public class SearchMetrics {
+    private final int expanded;
+    private final int generated;
+    private final int duplicates;
+    private final int peakFrontier;
+    private final int explored;
+    /* Number of moves in the solution (-1 if there is none) */
+    private final int depth;
+    /* Time of the whole search and of the heuristic in nanoseconds */
+    private final long time;
+    private final long heuristicTime;
+
+    public SearchMetrics( int e, int g, int d, int p, int x, int l, long t, long h ){
+        expanded = e;
+        generated = g;
+        duplicates = d;
+        peakFrontier = p;
+        explored = x;
+        depth = l;
+        time = t;
+        heuristicTime = h;
+    }
+
+    /**
+     * Returns the number of nodes expanded.
+     */
+    public int getExpanded(){
+        return expanded;
+    }
+
+    /**
+     * Returns the number of nodes generated (added to the frontier).
+     */
+    public int getGenerated(){
+        return generated;
+    }
+
+    /**
+     * Returns the number of children that were rejected as duplicates.
+     */
+    public int getDuplicates(){
+        return duplicates;
+    }
+
+    /**
+     * Returns the largest number of nodes in the frontier at once.
+     */
+    public int getPeakFrontier(){
+        return peakFrontier;
+    }
+
+    /**
+     * Returns the number of states in the explored set at the end of the search.
+     */
+    public int getExplored(){
+        return explored;
+    }
+
+    /**
+     * Returns the number of moves in the solution (-1 if there is none).
+     */
+    public int getDepth(){
+        return depth;
+    }
+
+    /**
+     * Returns the time the search took in nanoseconds.
+     */
+    public long getTime(){
+        return time;
+    }
+
+    /**
+     * Returns the time spent in the heuristic in nanoseconds (0 if it was not measured).
+     */
+    public long getHeuristicTime(){
+        return heuristicTime;
+    }
+
+    /**
+     * Returns the time spent expanding nodes (everything but the heuristic) in
+     * nanoseconds.
+     */
+    public long getExpansionTime(){
+        return time - heuristicTime;
+    }
+
+    /**
+     * Returns the effective branching factor b: the branching factor a uniform tree
+     * with the depth of the solution would need to contain the generated nodes, so
+     * generated = 1 + b + b^2 + ... + b^depth. Returns 0 if there is no solution or it
+     * has no moves.
+     */
+    public double getBranchingFactor(){
+        if( depth <= 0 ){
+            return 0;
+        }
+        double low = 0;
+        double high = Math.max( generated, 1 );
+        for( int i = 0; i < 64; i++ ){
+            double b = ( low + high ) / 2;
+            double total = 1;
+            double power = 1;
+            for( int d = 0; d < depth; d++ ){
+                power *= b;
+                total += power;
+            }
+            if( total < generated ){
+                low = b;
+            }
+            else{
+                high = b;
+            }
+        }
+        return ( low + high ) / 2;
+    }
+
+    /**
+     * Saves the statistics to a String and returns it.
+     */
+    public String toString(){
+        return "Nodes Expanded: " + expanded
+                + "\nDuplicates Rejected: " + duplicates
+                + "\nPeak Frontier Size: " + peakFrontier
+                + "\nExplored Set Size: " + explored
+                + "\nEffective Branching Factor: " + String.format( "%.3f", getBranchingFactor() )
+                + ( heuristicTime > 0 ? "\nHeuristic Time: " + heuristicTime : "" );
+    }
+}
@@ -0,0 +1,230 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * This class contains the result of one search: the solution path from the initial
+ * puzzle to the goal (empty if the puzzle has no solution) and the number of nodes
+ * generated. The solution can also be given as a compact sequence of moves (see
+ * getMoves), and both can be written to any Appendable without building Strings. The
+ * path is stored as packed states (see BoardState) and may be the end of a longer path
+ * shared with other results (see SolutionCache), so the array is never changed. A
+ * solution found by weighted or anytime A* may not be optimal; its bound says how far
+ * from optimal it can be (see getBound). A search that was stopped by its budget (see
+ * SearchBudget) or by an interrupt has no solution, but keeps the path to the node it
+ * found closest to the goal (see getStatus and getPartialPath). A result never changes
+ * once it is made, so it can be shared between threads.
+ */
+public class SearchResult {
+    /**
+     * This enum contains the reasons a search can end: it found a solution, it showed
+     * that there is none, or it was stopped by a limit of its budget or an interrupt
+     * before it could do either.
+     */
+    public enum Status {
+        SOLVED, UNSOLVABLE, TIME_LIMIT, NODE_LIMIT, MEMORY_LIMIT, INTERRUPTED
+    }
+
+    /* Width of the board */
+    private final int width;
+    /* Contains a solution path that ends at the goal */
+    private final long[] path;
+    /* Index in path of the initial puzzle (path.length if there is no solution) */
+    private final int offset;
+    /* Number of nodes generated in the search tree */
+    private final int size;
+    /* Statistics of the search (null if there are none) */
+    private final SearchMetrics metrics;
+    /* The solution has at most this many times the moves of an optimal one */
+    private final double bound;
+    /* Reason the search ended */
+    private final Status status;
+    /* Path from the initial puzzle to the node closest to the goal if the search was
+     * stopped (empty otherwise) */
+    private final long[] partial;
+
+    /* Constructor that traces the solution path from the given goal node (null if the
+     * puzzle was not solved) back to the root */
+    public SearchResult( BoardNode goal, int s, int w ){
+        this( goal, s, null, w, 1 );
+    }
+
+    /* Constructor for the result of a search with the given statistics */
+    public SearchResult( BoardNode goal, SearchMetrics m, int w ){
+        this( goal, m.getGenerated(), m, w, 1 );
+    }
+
+    /* Constructor for the result of a search with the given statistics whose solution
+     * is within the given factor of optimal */
+    public SearchResult( BoardNode goal, SearchMetrics m, int w, double b ){
+        this( goal, m.getGenerated(), m, w, b );
+    }
+
+    /* Constructor for the result of a search with the given statistics that was stopped
+     * for the given reason, keeping the path to the given node (the one closest to the
+     * goal) */
+    public SearchResult( BoardNode closest, Status st, SearchMetrics m, int w ){
+        path = new long[0];
+        offset = 0;
+        size = m.getGenerated();
+        metrics = m;
+        width = w;
+        bound = Double.POSITIVE_INFINITY;
+        status = st;
+        partial = trace( closest );
+    }
+
+    /* Constructor that traces the solution path from the given goal node back to the
+     * root */
+    private SearchResult( BoardNode goal, int s, SearchMetrics m, int w, double b ){
+        path = trace( goal );
+        offset = 0;
+        size = s;
+        metrics = m;
+        width = w;
+        bound = b;
+        status = goal != null ? Status.SOLVED : Status.UNSOLVABLE;
+        partial = new long[0];
+    }
+
+    /* Constructor for the solution that follows the given path from the given index to
+     * its end (the array is kept, not copied) */
+    public SearchResult( long[] p, int o, int s, int w ){
+        path = p;
+        offset = o;
+        size = s;
+        metrics = null;
+        width = w;
+        bound = 1;
+        status = o < p.length ? Status.SOLVED : Status.UNSOLVABLE;
+        partial = new long[0];
+    }
+
+    /**
+     * Returns the packed states from the root to the given node (empty if it is null).
+     */
+    private static long[] trace( BoardNode node ){
+        int count = 0;
+        for( BoardNode step = node; step != null; step = step.getParent() ){
+            count++;
+        }
+        long[] states = new long[count];
+        for( BoardNode step = node; step != null; step = step.getParent() ){
+            states[--count] = step.getState();
+        }
+        return states;
+    }
+
+    /**
+     * Returns true if a solution was found and false otherwise.
+     */
+    public boolean isSolved(){
+        return offset < path.length;
+    }
+
+    /**
+     * Returns the reason the search ended: SOLVED or UNSOLVABLE if it finished, or the
+     * limit that stopped it.
+     */
+    public Status getStatus(){
+        return status;
+    }
+
+    /**
+     * Returns a copy of the path from the initial puzzle to the node closest to the goal
+     * (the lowest h(n)) if the search was stopped before it finished, and an empty array
+     * otherwise.
+     */
+    public long[] getPartialPath(){
+        return partial.clone();
+    }
+
+    /**
+     * Returns the number of moves in the solution (-1 if there is none).
+     */
+    public int getLength(){
+        return path.length - offset - 1;
+    }
+
+    /**
+     * Returns the number of nodes generated in the search tree (0 if the solution came
+     * from a SolutionCache).
+     */
+    public int getSize(){
+        return size;
+    }
+
+    /**
+     * Returns the statistics of the search, or null if there are none (for example if
+     * the solution came from a SolutionCache).
+     */
+    public SearchMetrics getMetrics(){
+        return metrics;
+    }
+
+    /**
+     * Returns the suboptimality bound of the solution: it has at most this many times
+     * the moves of an optimal solution. The bound is 1 if the solution is optimal, and
+     * infinite if no solution was found in time (see AStarSearch.findAnytimeSolution).
+     */
+    public double getBound(){
+        return bound;
+    }
+
+    /**
+     * Returns the packed state after the given number of moves (0 for the initial
+     * puzzle, getLength() for the goal).
+     */
+    public long getState( int step ){
+        return path[offset + step];
+    }
+
+    /**
+     * Returns the moves of the space in the solution, one letter ('U', 'D', 'L', or 'R')
+     * per move (see BoardState.direction).
+     */
+    public byte[] getMoves(){
+        int length = Math.max( getLength(), 0 );
+        byte[] moves = new byte[length];
+        int cells = width * width;
+        int from = length > 0 ? BoardState.findBlank( path[offset], cells ) : 0;
+        for( int i = 0; i < length; i++ ){
+            int to = BoardState.findBlank( path[offset + i + 1], cells );
+            moves[i] = BoardState.direction( from, to, width );
+            from = to;
+        }
+        return moves;
+    }
+
+    /**
+     * Writes every board of the solution path to the given Appendable.
+     */
+    public void append( Appendable out ) throws IOException {
+        for( int i = offset; i < path.length; i++ ){
+            BoardState.append( out, path[i], width );
+        }
+    }
+
+    /**
+     * Writes the moves of the solution (see getMoves) to the given Appendable.
+     */
+    public void appendMoves( Appendable out ) throws IOException {
+        for( byte move : getMoves() ){
+            out.append( (char) move );
+        }
+    }
+
+    /**
+     * Saves the solution path to a String and returns it.
+     */
+    public String toString(){
+        StringBuilder str = new StringBuilder();
+        try {
+            append( str );
+        }
+        catch( IOException e ){
+            /* A StringBuilder never throws */
+            throw new UncheckedIOException( e );
+        }
+        return str.toString();
+    }
+}
@@ -0,0 +1,204 @@
+/**
+ * This class is a bounded cache of solved puzzles for one board size, placed in front
+ * of AStarSearch (see AStarSearch.withCache). Every state on an optimal solution path is
+ * itself solved optimally by the rest of that path, so when a puzzle is solved, all the
+ * states on its path are added, each pointing into the same array of packed states
+ * (see SearchResult). A puzzle and its flipped puzzle (see BoardState.transpose) need
+ * the same number of moves, so both are stored under one canonical key (the smaller of
+ * the two packed states), and a path found for one is flipped back for the other.
+ *
+ * When the cache is full, the least recently used state is evicted. The entries form a
+ * doubly linked list kept in arrays (most recently used first), and a LongIntHashMap
+ * maps each key to its slot, so no objects are made per entry. All methods are
+ * synchronized so one cache can be shared by every thread of a batch.
+ */
+public class SolutionCache {
+    /* Marks the end of the list */
+    private static final int NONE = -1;
+
+    /* Contains the size of the board */
+    private final BoardSize boardSize;
+    /* Largest number of states kept */
+    private final int capacity;
+    /* Maps every canonical key to its slot */
+    private final LongIntHashMap slots;
+    /* Key of each slot */
+    private final long[] keys;
+    /* Solution path of each slot, which is shared with the other states on it */
+    private final long[][] paths;
+    /* Index in the path of the state of each slot */
+    private final int[] offsets;
+    /* Previous and next slot in the list (from the most to the least recently used) */
+    private final int[] prev;
+    private final int[] next;
+    /* Most and least recently used slots */
+    private int head;
+    private int tail;
+    /* Number of slots in use */
+    private int size;
+
+    /* Number of lookups that found or did not find a solution */
+    private long hits;
+    private long misses;
+
+    /* Constructor that creates an empty cache holding at most the given number of states */
+    public SolutionCache( BoardSize bs, int c ){
+        if( c < 1 ){
+            throw new IllegalArgumentException( "Cache capacity must be at least 1: " + c );
+        }
+        boardSize = bs;
+        capacity = c;
+        slots = new LongIntHashMap( c );
+        keys = new long[c];
+        paths = new long[c][];
+        offsets = new int[c];
+        prev = new int[c];
+        next = new int[c];
+        head = NONE;
+        tail = NONE;
+        size = 0;
+    }
+
+    /**
+     * Returns the size of the puzzles in this cache.
+     */
+    public BoardSize getBoardSize(){
+        return boardSize;
+    }
+
+    /**
+     * Returns the solution of the given packed state, or null if it is not in the cache.
+     */
+    public synchronized SearchResult get( long state ){
+        long key = canonical( state );
+        int slot = slots.get( key, NONE );
+        if( slot == NONE ){
+            misses++;
+            return null;
+        }
+        hits++;
+        moveToFront( slot );
+
+        long[] path = paths[slot];
+        int offset = offsets[slot];
+        if( path[offset] != state ){
+            /* The path was found for the flipped puzzle, so it is flipped back */
+            long[] flipped = new long[path.length - offset];
+            for( int i = 0; i < flipped.length; i++ ){
+                flipped[i] = BoardState.transpose( path[offset + i], boardSize.getWidth() );
+            }
+            path = flipped;
+            offset = 0;
+        }
+        return new SearchResult( path, offset, 0, boardSize.getWidth() );
+    }
+
+    /**
+     * Adds every state on the path of the given result (starting with the goal, so the
+     * initial puzzle ends up the most recently used). Unsolved results and solutions that
+     * may not be optimal (see SearchResult.getBound) are not cached.
+     */
+    public synchronized void put( SearchResult result ){
+        if( !result.isSolved() || result.getBound() > 1 ){
+            return;
+        }
+        int length = result.getLength();
+        long[] path = new long[length + 1];
+        for( int i = 0; i <= length; i++ ){
+            path[i] = result.getState( i );
+        }
+        for( int i = length; i >= 0; i-- ){
+            long key = canonical( path[i] );
+            int slot = slots.get( key, NONE );
+            if( slot == NONE ){
+                if( size < capacity ){
+                    slot = size++;
+                }
+                else{
+                    slot = tail;
+                    unlink( slot );
+                    slots.remove( keys[slot] );
+                }
+                keys[slot] = key;
+                slots.put( key, slot );
+                linkFirst( slot );
+            }
+            else{
+                moveToFront( slot );
+            }
+            paths[slot] = path;
+            offsets[slot] = i;
+        }
+    }
+
+    /**
+     * Returns the number of lookups that found a solution.
+     */
+    public synchronized long getHits(){
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that did not find a solution.
+     */
+    public synchronized long getMisses(){
+        return misses;
+    }
+
+    /**
+     * Returns the number of states in the cache.
+     */
+    public synchronized int size(){
+        return size;
+    }
+
+    /**
+     * Returns the key under which the given state is stored.
+     */
+    private long canonical( long state ){
+        return Math.min( state, BoardState.transpose( state, boardSize.getWidth() ) );
+    }
+
+    /**
+     * Makes the given slot the most recently used.
+     */
+    private void moveToFront( int slot ){
+        if( slot != head ){
+            unlink( slot );
+            linkFirst( slot );
+        }
+    }
+
+    /**
+     * Adds the given slot at the front of the list.
+     */
+    private void linkFirst( int slot ){
+        prev[slot] = NONE;
+        next[slot] = head;
+        if( head != NONE ){
+            prev[head] = slot;
+        }
+        head = slot;
+        if( tail == NONE ){
+            tail = slot;
+        }
+    }
+
+    /**
+     * Removes the given slot from the list.
+     */
+    private void unlink( int slot ){
+        if( prev[slot] != NONE ){
+            next[prev[slot]] = next[slot];
+        }
+        else{
+            head = next[slot];
+        }
+        if( next[slot] != NONE ){
+            prev[next[slot]] = prev[slot];
+        }
+        else{
+            tail = prev[slot];
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * This interface represents the explored set used by AStarSearch and BidirectionalSearch:
+ * a set of packed states. LongHashSet works for any board, and RankedStateSet is smaller
+ * and faster but only supports boards up to 3x3 (see forSize). A set is only used by one
+ * thread.
+ */
+public interface StateSet {
+    /**
+     * Returns the number of states in the set.
+     */
+    int size();
+
+    /**
+     * Returns true if the set contains the given state and false otherwise.
+     */
+    boolean contains( long state );
+
+    /**
+     * Adds the given state to the set. Returns true if it was added and false if it was
+     * already in the set.
+     */
+    boolean add( long state );
+
+    /**
+     * Removes every state from the set while keeping its memory for reuse.
+     */
+    void clear();
+
+    /**
+     * Returns an empty set for states of the given size: a RankedStateSet for boards up to
+     * 3x3 and a LongHashSet otherwise.
+     */
+    static StateSet forSize( BoardSize bs ){
+        if( bs.getCells() <= RankedStateSet.MAX_CELLS ){
+            return new RankedStateSet( bs );
+        }
+        return new LongHashSet();
+    }
+}
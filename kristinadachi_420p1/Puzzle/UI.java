@@ -1,19 +1,18 @@
 import java.util.Scanner;
-import java.util.Random;
 import java.util.InputMismatchException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * This class handles all the UI of this program. The user is able to enter their own
- * 8-puzzle to solve or choose to generate a random, solvable puzzle. This class also
- * checks if a given puzzle is solvable as well as if it is valid.
+ * puzzle to solve or choose to generate a random, solvable puzzle, with a board of any
+ * width (3 for the 8-puzzle, 4 for the 15-puzzle, and so on). This class also checks if
+ * a given puzzle is solvable as well as if it is valid.
  */
 public class UI {
     /* Scanner */
     private Scanner input;
-    /* 2d array used when generating a random 8-puzzle */
-    int[][] puzzle = {{-1, -1, -1},
-                      {-1, -1, -1},
-                      {-1, -1, -1}};
 
     /* Constructor that creates a Scanner and prints the menu */
     public UI(){
@@ -72,45 +71,34 @@ public class UI {
     }
 
     /**
-     * Prints the menu for entering a puzzle. If the puzzle is valid, A* search is used
-     * with both heuristics h1 and h2. The step-by-step solution, time it takes to perform
-     * the searches, and the number of nodes generated are printed for each heuristic.
+     * Prints the menu for entering a puzzle. If the puzzle is valid, it is solved (see
+     * solve). The step-by-step solution, time it takes to perform the searches, and the
+     * number of nodes generated are printed for each heuristic.
      */
     public void enterPuzzle(){
         try {
+            int width = setupWidth();
+
             System.out.println("\nPlease use the following format...");
-            System.out.println("# # #\n# # #\n# # #");
+            String row = "#" + " #".repeat(width - 1);
+            for (int i = 0; i < width; i++) {
+                System.out.println(row);
+            }
             System.out.println("Now enter your puzzle:");
 
-            String line = input.nextLine();
-            String[] args1 = line.split("\\s");
-
-            line = input.nextLine();
-            String[] args2 = line.split("\\s");
-
-            line = input.nextLine();
-            String[] args3 = line.split("\\s");
-
-            int[][] puzzle = new int[3][3];
-            int[] arr = new int[9];
-            for (int i = 0; i < 3; i++) {
-                puzzle[0][i] = Integer.parseInt(args1[i]);
-                puzzle[1][i] = Integer.parseInt(args2[i]);
-                puzzle[2][i] = Integer.parseInt(args3[i]);
-
-                arr[i] = Integer.parseInt(args1[i]);
-                arr[i + 3] = Integer.parseInt(args2[i]);
-                arr[i + 6] = Integer.parseInt(args3[i]);
+            int[][] puzzle = new int[width][width];
+            int[] arr = new int[width * width];
+            for (int i = 0; i < width; i++) {
+                String line = input.nextLine();
+                String[] args = line.split("\\s");
+                for (int j = 0; j < width; j++) {
+                    puzzle[i][j] = Integer.parseInt(args[j]);
+                    arr[i * width + j] = puzzle[i][j];
+                }
             }
 
             if (validate(arr)) {
-                /* Running the search using h1 */
-                AStarSearch search = new AStarSearch(puzzle);
-                runSearch(search, false);
-
-                /* Running the search using h2 */
-                search.setHFlag(true);
-                runSearch(search, true);
+                solve(puzzle);
             } else {
                 System.out.println("\nThe entered puzzle is not solvable.\n");
             }
@@ -126,73 +114,99 @@ public class UI {
     }
 
     /**
-     * Generates a random, solvable puzzle. After generating a valid 8-puzzle, A* search is
-     * performed using both heuristics h1 and h2. The step-by-step solution, time it takes to
-     * perform the searches, and the number of nodes generated are printed for each heuristic.
+     * Generates a random, solvable puzzle (see PuzzleGenerator) and solves it (see
+     * solve). The step-by-step solution, time it takes to perform the searches, and the
+     * number of nodes generated are printed for each heuristic.
      */
     public void generatePuzzle(){
-        Random rand = new Random();
-        int[] arr = new int[9];
-        int num;
-
-        while( !validate( arr ) ) {
-            resetPuzzle();
-            num = -1;
-            for (int i = 0; i < 3; i++) {
-                for (int j = 0; j < 3; j++) {
-                    while (contains(num, puzzle)) {
-                        num = rand.nextInt(9);
-                    }
-                    puzzle[i][j] = num;
-                }
-            }
-
-            for (int i = 0; i < 3; i++) {
-                arr[i] = puzzle[0][i];
-                arr[i + 3] = puzzle[1][i];
-                arr[i + 6] = puzzle[2][i];
+        int width = setupWidth();
+        int[] arr = new PuzzleGenerator( new BoardSize( width ), System.nanoTime() ).next();
+        int[][] puzzle = new int[width][width];
+        for( int i = 0; i < width; i++ ){
+            for( int j = 0; j < width; j++ ){
+                puzzle[i][j] = arr[i * width + j];
             }
         }
 
         System.out.println( "\nGenerated Puzzle:" );
-        for( int i = 0; i < 3; i++ ){
-            for( int j = 0; j < 3; j++ ){
+        for( int i = 0; i < width; i++ ){
+            for( int j = 0; j < width; j++ ){
                 System.out.print( puzzle[i][j] + " " );
             }
             System.out.println();
         }
 
-        /* Running the search using h1 */
-        AStarSearch search = new AStarSearch(puzzle);
-        runSearch(search, false);
-
-        /* Running the search using h2 */
-        search.setHFlag(true);
-        runSearch(search, true);
+        solve( puzzle );
 
         printMenu();
     }
 
     /**
-     * Used to determine if a given 8-puzzle is valid. This means that it is solvable,
-     * entered using the correct format, and contains valid numbers (with 0 being the
-     * space). To check if it is solvable, the number of inverses is calculated. If it is
-     * even, the puzzle is solvable and if it is odd, the puzzle is not solvable.
+     * Solves the given puzzle. The 8-puzzle (and smaller) is solved by A* search using
+     * both heuristics h1 and h2 (see MisplacedTiles and ManhattanDistance). Larger
+     * puzzles have far too many states for h1 (or for keeping the whole search graph in
+     * memory), so they are solved by IDA* using the pattern database for their size if
+     * there is one (it is built and saved in the current directory the first time) and
+     * h2 otherwise.
      */
-    public boolean validate( int[] arr ){
-        int invCount = 0;
+    public void solve( int[][] puzzle ){
+        if( puzzle.length <= 3 ){
+            BoardSize size = new BoardSize(puzzle.length);
 
-        for( int i = 0; i < arr.length; i++ ){
-            /* Counts the number of inverses in the puzzle */
-            for( int j = i + 1; j < arr.length; j++ ){
-                if( arr[i] > arr[j] ){
-                    invCount++;
+            /* Running the search using h1 */
+            runSearch(new AStarSearch(size, new MisplacedTiles()), puzzle);
+
+            /* Running the search using h2 */
+            runSearch(new AStarSearch(size, new ManhattanDistance(size)), puzzle);
+        }
+        else{
+            IDAStarSearch search = new IDAStarSearch(puzzle);
+            BoardSize size = new BoardSize(puzzle.length);
+            search.setHeuristic(new ManhattanDistance(size));
+            if( PatternDatabase.defaultPatterns(size) != null ){
+                try {
+                    System.out.println( "\nLoading pattern database (building it may take a few minutes)..." );
+                    search.setHeuristic(PatternDatabase.open(size, new File(".")));
                 }
-                if( arr[i] == 0 && i % 2 == 1 ) {
-                    invCount++;
+                catch( IOException e ){
+                    System.out.println( "Could not load the pattern database, using h2." );
                 }
             }
+            runSearch(search);
+        }
+    }
 
+    /**
+     * Requests the user to enter the width of the board (3 for the 8-puzzle).
+     */
+    public int setupWidth(){
+        int num = 0;
+        while( num < 2 ){
+            System.out.print( "Enter the width of the board (3 for the 8-puzzle): " );
+            try {
+                num = Integer.parseInt( input.nextLine().trim() );
+            }
+            catch( NumberFormatException e ){
+                num = 0;
+            }
+        }
+        return num;
+    }
+
+    /**
+     * Used to determine if a given puzzle (stored row by row) is valid. This means that
+     * it is solvable, entered using the correct format, and contains valid numbers (with
+     * 0 being the space). To check if it is solvable, the number of inverses is
+     * calculated (see BoardSize.isSolvable). For an odd width it must be even, and for an
+     * even width the row of the space is added to it first.
+     */
+    public boolean validate( int[] arr ){
+        int width = (int) Math.round( Math.sqrt( arr.length ) );
+        if( width < 2 || width * width != arr.length ){
+            return false;
+        }
+
+        for( int i = 0; i < arr.length; i++ ){
             /* Ensures that there are no repeated numbers in the puzzle */
             for( int j = 0; j < arr.length; j++ ){
                 if( i != j && arr[i] == arr[j] ){
@@ -200,59 +214,46 @@ public class UI {
                 }
             }
 
-            /* Checks for any invalid numbers (range is from 0-8) */
-            if( arr[i] < 0 || arr[i] > 8 ){
+            /* Checks for any invalid numbers (range is from 0 to the number of tiles) */
+            if( arr[i] < 0 || arr[i] >= arr.length ){
                 return false;
             }
         }
 
-        return ( invCount % 2 == 0 );
+        return new BoardSize( width ).isSolvable( arr );
     }
 
     /**
-     * Checks if the given array contains a certain number. Returns true if it does and
-     * false otherwise.
+     * Runs the A* search on the given puzzle using its heuristic and prints the results.
      */
-    public boolean contains( int num, int[][] arr ){
-        for( int i = 0; i < 3; i++ ){
-            for( int j = 0; j < 3; j++ ){
-                if ( arr[i][j] == num ){
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
+    public void runSearch( AStarSearch search, int[][] puzzle ){
+        long start = System.nanoTime();
+        SearchResult result = search.findSolution(puzzle);
+        long end = System.nanoTime();
 
-    /**
-     * Resets the puzzle to values of -1.
-     */
-    public void resetPuzzle(){
-        for( int i = 0; i < 3; i++ ){
-            for( int j = 0; j < 3; j++ ){
-                puzzle[i][j] = -1;
-            }
-        }
+        System.out.println( "\n-------------" );
+        System.out.println( " " + search.getHeuristic().getName() + " Solution" );
+        System.out.println( "-------------" );
+        System.out.println( result.toString() );
+        System.out.println( "Moves: " + new String( result.getMoves(), StandardCharsets.US_ASCII ) );
+        System.out.println( "Time Elapsed: " + (end - start) );
+        System.out.println( "Nodes Generated: " + result.getSize() );
+        System.out.println( result.getMetrics() + "\n" );
     }
 
     /**
-     * Runs the A* search using the specified heuristic and prints the results. If h is
-     * false, the h1 heuristic is used and if h2 is true, the h2 heuristic is used.
+     * Runs the IDA* search using its current heuristic and prints the results.
      */
-    public void runSearch( AStarSearch search, boolean h ){
+    public void runSearch( IDAStarSearch search ){
         long start = System.nanoTime();
         search.findSolution();
         long end = System.nanoTime();
 
-        System.out.println( "\n-------------" );
-        if( h ){
-            System.out.println( " H2 Solution" );
-        }
-        else{
-            System.out.println( " H1 Solution" );
-        }
-        System.out.println( "-------------" );
+        System.out.println( "\n------------------" );
+        System.out.println(  " IDA* " + search.getHeuristic().getName() + " Solution" );
+        System.out.println( "------------------" );
         System.out.println( search.toString() );
+        System.out.println( "Moves: " + new String( search.getMoves(), StandardCharsets.US_ASCII ) );
         System.out.println( "Time Elapsed: " + (end - start) );
         System.out.println( "Nodes Generated: " + search.getSize() + "\n" );
     }
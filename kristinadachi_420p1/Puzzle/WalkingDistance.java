@@ -0,0 +1,135 @@
+import java.util.Arrays;
+
+/**
+ * This class represents the walking distance heuristic. For the vertical part, the board
+ * is reduced to a table that counts, for every row, how many of its tiles belong in each
+ * goal row, plus the row of the space. A vertical move takes one tile from the row next
+ * to the space into the row of the space, so the fewest moves needed to reach the goal
+ * table is a lower bound on the vertical moves of any solution. The horizontal part is
+ * the same with columns, and since the goal is the same when the board is flipped along
+ * its diagonal, both parts use the same table. The sum of the two parts is admissible,
+ * at least as high as the Manhattan distance, and changes by at most one per move.
+ *
+ * The distances of all reachable tables are found once with a breadth-first search from
+ * the goal (24,964 tables for the 15-puzzle) and stored in a LongIntHashMap. A table is
+ * packed into a long using 3 bits per count and 3 bits for the row of the space, so
+ * boards up to 4x4 are supported.
+ */
+public class WalkingDistance implements Heuristic {
+    /* Number of bits used for each count */
+    private static final int BITS = 3;
+
+    /* Contains the size of the board */
+    private final BoardSize boardSize;
+    /* Maps every packed table to its number of moves from the goal */
+    private final LongIntHashMap distances;
+    /* Position of the row of the space within a packed table */
+    private final int blankShift;
+
+    /* Constructor that builds the distance table for a board of the given size */
+    public WalkingDistance( BoardSize bs ){
+        if( bs.getWidth() > 4 ){
+            throw new IllegalArgumentException( "Walking distance supports boards up to 4x4: " + bs.getWidth() );
+        }
+        boardSize = bs;
+        blankShift = bs.getCells() * BITS;
+        distances = new LongIntHashMap();
+        build();
+    }
+
+    /**
+     * Returns the name of this heuristic.
+     */
+    public String getName(){
+        return "WD";
+    }
+
+    /**
+     * Returns the walking distance of the given packed state.
+     */
+    public int estimate( long state ){
+        int width = boardSize.getWidth();
+        long vertical = 0;
+        long horizontal = 0;
+        for( int i = 0; i < boardSize.getCells(); i++ ){
+            int tile = BoardState.tileAt( state, i );
+            if( tile == 0 ){
+                vertical |= (long) boardSize.getRow( i ) << blankShift;
+                horizontal |= (long) boardSize.getColumn( i ) << blankShift;
+            }
+            else{
+                vertical += unit( boardSize.getRow( i ) * width + boardSize.getRow( tile ) );
+                horizontal += unit( boardSize.getColumn( i ) * width + boardSize.getColumn( tile ) );
+            }
+        }
+        return distances.get( vertical, 0 ) + distances.get( horizontal, 0 );
+    }
+
+    /**
+     * Returns the walking distance of the given board.
+     */
+    public int estimate( int[] tiles ){
+        long state = 0;
+        for( int i = 0; i < tiles.length; i++ ){
+            state |= (long) tiles[i] << ( i * 4 );
+        }
+        return estimate( state );
+    }
+
+    /**
+     * Finds the number of moves from the goal table to every reachable table with a
+     * breadth-first search.
+     */
+    private void build(){
+        int width = boardSize.getWidth();
+        /* In the goal, every row holds its own tiles and the space is in row 0 */
+        long goal = 0;
+        for( int r = 0; r < width; r++ ){
+            goal += (long) ( r == 0 ? width - 1 : width ) << ( ( r * width + r ) * BITS );
+        }
+        distances.put( goal, 0 );
+
+        long[] queue = new long[1024];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = goal;
+        while( head < tail ){
+            long table = queue[head++];
+            int d = distances.get( table, 0 );
+            int blank = (int) ( table >>> blankShift );
+            for( int row = blank - 1; row <= blank + 1; row += 2 ){
+                if( row < 0 || row >= width ){
+                    continue;
+                }
+                for( int g = 0; g < width; g++ ){
+                    if( count( table, row * width + g ) > 0 ){
+                        /* A tile that belongs in row g moves from row into the space */
+                        long next = table - unit( row * width + g ) + unit( blank * width + g );
+                        next = ( next & ( ( 1L << blankShift ) - 1 ) ) | ( (long) row << blankShift );
+                        if( distances.get( next, -1 ) < 0 ){
+                            distances.put( next, d + 1 );
+                            if( tail == queue.length ){
+                                queue = Arrays.copyOf( queue, tail << 1 );
+                            }
+                            queue[tail++] = next;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the count stored in the given entry of a packed table.
+     */
+    private static int count( long table, int entry ){
+        return (int) ( ( table >>> ( entry * BITS ) ) & ( ( 1 << BITS ) - 1 ) );
+    }
+
+    /**
+     * Returns the value that adds one to the given entry of a packed table.
+     */
+    private static long unit( int entry ){
+        return 1L << ( entry * BITS );
+    }
+}
@@ -0,0 +1,41 @@
+import java.io.IOException;
+import java.util.function.LongSupplier;
+
+/**
+ * This class is the workload of the benchmarks: a fixed set of 8-puzzles that all need
+ * the same number of moves, and an AStarSearch to solve them. Every call of getAsLong
+ * solves the whole set and returns the number of nodes generated.
+ *
+ * The solver lives in the default package, which classes in other packages cannot
+ * refer to, and JMH does not allow benchmarks in the default package. The benchmarks
+ * therefore create this class by name and only use it as a LongSupplier.
+ */
+public class PuzzleWorkload implements LongSupplier {
+    /* Contains the puzzles, packed into longs */
+    private final long[] puzzles;
+    /* Used to solve the puzzles */
+    private final AStarSearch search;
+
+    /* Constructor that makes count puzzles that need exactly depth moves from the given
+     * seed, solved with the heuristic of the given name (see Heuristic.forName) */
+    public PuzzleWorkload( String heuristic, int depth, int count, long seed ) throws IOException {
+        BoardSize bs = new BoardSize( 3 );
+        PuzzleGenerator generator = new PuzzleGenerator( DistanceTable.build( bs ), seed );
+        puzzles = new long[count];
+        for( int i = 0; i < count; i++ ){
+            puzzles[i] = generator.nextState( depth );
+        }
+        search = new AStarSearch( bs, Heuristic.forName( heuristic, bs ) );
+    }
+
+    /**
+     * Solves every puzzle and returns the total number of nodes generated.
+     */
+    public long getAsLong(){
+        long nodes = 0;
+        for( long puzzle : puzzles ){
+            nodes += search.findSolution( puzzle ).getSize();
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,77 @@
+package puzzle.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures AStarSearch on fixed sets of 8-puzzles grouped by the number of
+ * moves they need, for each heuristic. The score is the number of puzzle sets solved
+ * per second, and the nodes counter gives the number of nodes generated per second
+ * (the expansion rate). Run with "-prof gc" to also see the allocation rate.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class AStarBenchmark {
+    /* Number of puzzles in each set */
+    private static final int COUNT = 32;
+    /* Seed of the puzzle sets, so every run solves the same puzzles */
+    private static final long SEED = 420;
+
+    /* Name of the heuristic (see Heuristic.forName) */
+    @Param( { "h1", "h2" } )
+    public String heuristic;
+
+    /* Number of moves needed by every puzzle in the set */
+    @Param( { "8", "16", "20", "24" } )
+    public int depth;
+
+    /* Solves the puzzle set (see PuzzleWorkload) */
+    private LongSupplier workload;
+
+    @Setup( Level.Trial )
+    public void setup() throws ReflectiveOperationException {
+        workload = (LongSupplier) Class.forName( "PuzzleWorkload" )
+                .getConstructor( String.class, int.class, int.class, long.class )
+                .newInstance( heuristic, depth, COUNT, SEED );
+    }
+
+    @Benchmark
+    public long solve( Nodes nodes ){
+        long n = workload.getAsLong();
+        nodes.nodes += n;
+        return n;
+    }
+
+    /**
+     * This class counts the nodes generated, which JMH reports as a rate next to the
+     * score.
+     */
+    @State( Scope.Thread )
+    @AuxCounters( AuxCounters.Type.OPERATIONS )
+    public static class Nodes {
+        public long nodes;
+
+        @Setup( Level.Iteration )
+        public void reset(){
+            nodes = 0;
+        }
+    }
+}
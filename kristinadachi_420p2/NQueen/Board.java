@@ -75,6 +75,26 @@ public class Board {
         return pairs;
     }
 
+    /**
+     * Returns a String containing the given board (an array of the row of the queen in
+     * each column), one row per line:
+     *   - = empty space
+     *   Q = queen
+     */
+    public static String toString( int[] b ){
+        StringBuilder str = new StringBuilder( b.length * ( 2 * b.length + 1 ) );
+        for( int i = 0; i < b.length; i++ ){
+            for( int j = 0; j < b.length; j++ ){
+                if( i == b[j] ){
+                    str.append( "Q " );
+                }else
+                    str.append( "- " );
+            }
+            str.append( '\n' );
+        }
+        return str.toString();
+    }
+
     /**
      * Alters the board by randomly selecting a queen and moving it to another random
      * position in the same column.
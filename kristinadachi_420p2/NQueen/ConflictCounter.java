@@ -0,0 +1,184 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * This class keeps track of the number of pairs of attacking queens on a board while
+ * its queens are moved. The board is an array of integers where each number is the row
+ * of the queen in that column (like the Board and HillClimbing classes). Instead of
+ * comparing every pair of queens, it counts the queens in every row, diagonal, and
+ * anti-diagonal: k queens on the same line make k * (k - 1) / 2 attacking pairs, and a
+ * pair of queens can only share one line. Moving one queen only changes the counts of
+ * the lines it leaves and the lines it joins, so the change in attacking pairs for any
+ * move can be found in O(1) time without copying the board (see delta).
+ *
+ * The counter moves the queens in the array it was given, so the array always holds the
+ * current board.
+ */
+public class ConflictCounter {
+    private int[] board;
+    /* Number of queens in each row */
+    private int[] rows;
+    /* Number of queens on each diagonal (row - column + n - 1) */
+    private int[] diagonals;
+    /* Number of queens on each anti-diagonal (row + column) */
+    private int[] antiDiagonals;
+    /* Number of pairs of attacking queens */
+    private long attacking;
+
+    /* ConflictCounter constructor */
+    public ConflictCounter( int[] b ){
+        board = b;
+        rows = new int[b.length];
+        diagonals = new int[2 * b.length - 1];
+        antiDiagonals = new int[2 * b.length - 1];
+        reset();
+    }
+
+    /**
+     * Counts the queens on every line of the board again. This is needed after the
+     * array was changed without using move (for example when it is filled with a new
+     * random board).
+     */
+    public void reset(){
+        int n = board.length;
+        Arrays.fill( rows, 0 );
+        Arrays.fill( diagonals, 0 );
+        Arrays.fill( antiDiagonals, 0 );
+        attacking = 0;
+        for( int col = 0; col < n; col++ ){
+            int row = board[col];
+            attacking += rows[row]++;
+            attacking += diagonals[row - col + n - 1]++;
+            attacking += antiDiagonals[row + col]++;
+        }
+    }
+
+    /**
+     * Returns the board (the same array the counter was given).
+     */
+    public int[] getBoard(){
+        return board;
+    }
+
+    /**
+     * Returns the number of pairs of attacking queens on the current board.
+     */
+    public long getAttacking(){
+        return attacking;
+    }
+
+    /**
+     * Returns the number of other queens that attack the queen in the given column.
+     */
+    public int getConflicts( int col ){
+        int row = board[col];
+        return rows[row] + diagonals[row - col + board.length - 1] + antiDiagonals[row + col] - 3;
+    }
+
+    /**
+     * Returns the number of queens in other columns that would attack a queen in the
+     * given column and row.
+     */
+    public int getConflicts( int col, int row ){
+        int conflicts = rows[row] + diagonals[row - col + board.length - 1] + antiDiagonals[row + col];
+        if( board[col] == row ){
+            /* The queen in this column is already there and does not attack itself */
+            conflicts -= 3;
+        }
+        return conflicts;
+    }
+
+    /**
+     * Returns the row (other than its current one) the queen in the given column would
+     * be attacked by the fewest queens in, taking the lowest such row if there is a tie.
+     */
+    public int findBestRow( int col ){
+        int n = board.length;
+        int from = board[col];
+        int best = -1;
+        int min = Integer.MAX_VALUE;
+        /* The lines of row j are rows[j], diagonals[j + shift], and antiDiagonals[j + col] */
+        int shift = n - 1 - col;
+        for( int j = 0; j < from; j++ ){
+            int conflicts = rows[j] + diagonals[j + shift] + antiDiagonals[j + col];
+            if( conflicts < min ){
+                min = conflicts;
+                best = j;
+            }
+        }
+        for( int j = from + 1; j < n; j++ ){
+            int conflicts = rows[j] + diagonals[j + shift] + antiDiagonals[j + col];
+            if( conflicts < min ){
+                min = conflicts;
+                best = j;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns a row (other than its current one) the queen in the given column would be
+     * attacked by the fewest queens in, choosing between tied rows at random with the
+     * given generator.
+     */
+    public int findBestRow( int col, SplittableRandom rand ){
+        int n = board.length;
+        int from = board[col];
+        int best = -1;
+        int min = Integer.MAX_VALUE;
+        int ties = 0;
+        int shift = n - 1 - col;
+        for( int j = 0; j < n; j++ ){
+            if( j == from ){
+                continue;
+            }
+            int conflicts = rows[j] + diagonals[j + shift] + antiDiagonals[j + col];
+            if( conflicts < min ){
+                min = conflicts;
+                best = j;
+                ties = 1;
+            }
+            else if( conflicts == min && rand.nextInt( ++ties ) == 0 ){
+                /* Each of the tied rows is kept with the same chance */
+                best = j;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the change in the number of attacking pairs if the queen in the given
+     * column was moved to the given row. The queen leaves every line it is on, so it
+     * stops attacking the other queens there, and it attacks every queen on the lines
+     * of its new square.
+     */
+    public int delta( int col, int row ){
+        int from = board[col];
+        if( from == row ){
+            return 0;
+        }
+        int n = board.length;
+        int removed = rows[from] + diagonals[from - col + n - 1] + antiDiagonals[from + col] - 3;
+        int added = rows[row] + diagonals[row - col + n - 1] + antiDiagonals[row + col];
+        return added - removed;
+    }
+
+    /**
+     * Moves the queen in the given column to the given row and updates the counts.
+     */
+    public void move( int col, int row ){
+        int from = board[col];
+        if( from == row ){
+            return;
+        }
+        int n = board.length;
+        attacking += delta( col, row );
+        rows[from]--;
+        diagonals[from - col + n - 1]--;
+        antiDiagonals[from + col]--;
+        rows[row]++;
+        diagonals[row - col + n - 1]++;
+        antiDiagonals[row + col]++;
+        board[col] = row;
+    }
+}
@@ -0,0 +1,331 @@
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class runs many hill climbing instances (see HillClimbing) of the same size
+ * without any user interaction and collects their results. The instances are split
+ * into small tasks that run on a ForkJoinPool. Every instance has its own random number
+ * generator, split from the seed in order before any of them run, so the same seed
+ * always gives the same boards and the same results no matter how many threads are used
+ * or which thread runs which instance.
+ *
+ * The time of each instance is measured with System.nanoTime on the thread that runs
+ * it, and the costs are kept as longs. The Report of an experiment gives the average and
+ * the percentiles (p50, p95, p99) of both, since a few slow instances are hidden by an
+ * average.
+ */
+public class Experiment {
+    /* Largest number of instances run by a task without splitting it */
+    private static final int THRESHOLD = 4;
+
+    private int size;
+    private int instances;
+    private int threads;
+    private int maxSideways;
+    private int maxRestarts;
+    private long seed;
+
+    /* Experiment constructor for the given number of instances of n queens, using the
+     * given number of threads and seed */
+    public Experiment( int n, int count, int t, long s ){
+        size = n;
+        instances = count;
+        threads = t;
+        maxSideways = 0;
+        maxRestarts = 0;
+        seed = s;
+    }
+
+    /**
+     * Sets the largest number of sideways moves in a row of each instance.
+     */
+    public void setSidewaysMoves( int s ){
+        maxSideways = s;
+    }
+
+    /**
+     * Sets the largest number of random restarts of each instance.
+     */
+    public void setRestarts( int r ){
+        maxRestarts = r;
+    }
+
+    /**
+     * Runs every instance and returns their results.
+     */
+    public Report run(){
+        SplittableRandom root = new SplittableRandom( seed );
+        SplittableRandom[] rands = new SplittableRandom[instances];
+        for( int i = 0; i < instances; i++ ){
+            rands[i] = root.split();
+        }
+        Report report = new Report( instances );
+        ForkJoinPool pool = new ForkJoinPool( threads );
+        try {
+            pool.invoke( new Task( rands, report, 0, instances ) );
+        }
+        finally {
+            pool.shutdown();
+        }
+        return report;
+    }
+
+    /**
+     * Runs the instance with the given number and stores its result in the report.
+     */
+    private void runInstance( int i, SplittableRandom rand, Report report ){
+        int[] board = new int[size];
+        for( int j = 0; j < size; j++ ){
+            board[j] = rand.nextInt( size );
+        }
+        HillClimbing hc = new HillClimbing( board, rand );
+        hc.setSidewaysMoves( maxSideways );
+        hc.setRestarts( maxRestarts );
+
+        long start = System.nanoTime();
+        boolean solved = hc.solve();
+        long end = System.nanoTime();
+
+        report.solved[i] = solved;
+        report.times[i] = end - start;
+        report.costs[i] = hc.getCost();
+    }
+
+    /**
+     * This class is a task that runs the instances from begin up to (not including) end,
+     * splitting itself in half while it has more than THRESHOLD instances.
+     */
+    private class Task extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SplittableRandom[] rands;
+        private final Report report;
+        private final int begin;
+        private final int end;
+
+        Task( SplittableRandom[] r, Report rep, int b, int e ){
+            rands = r;
+            report = rep;
+            begin = b;
+            end = e;
+        }
+
+        @Override
+        protected void compute(){
+            if( end - begin <= THRESHOLD ){
+                for( int i = begin; i < end; i++ ){
+                    runInstance( i, rands[i], report );
+                }
+                return;
+            }
+            int mid = ( begin + end ) >>> 1;
+            invokeAll( new Task( rands, report, begin, mid ), new Task( rands, report, mid, end ) );
+        }
+    }
+
+    /**
+     * This class contains the results of every instance of an experiment: whether it was
+     * solved, its time in nanoseconds, and its cost (successor boards considered). The
+     * times and costs of all the instances are used, solved or not.
+     */
+    public static class Report {
+        private final boolean[] solved;
+        private final long[] times;
+        private final long[] costs;
+
+        Report( int count ){
+            solved = new boolean[count];
+            times = new long[count];
+            costs = new long[count];
+        }
+
+        /**
+         * Returns the number of instances.
+         */
+        public int getInstances(){
+            return solved.length;
+        }
+
+        /**
+         * Returns the number of instances that were solved.
+         */
+        public int getSolved(){
+            int count = 0;
+            for( boolean s : solved ){
+                if( s ){
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Returns true if the instance with the given number was solved.
+         */
+        public boolean isSolved( int i ){
+            return solved[i];
+        }
+
+        /**
+         * Returns the time of the instance with the given number in nanoseconds.
+         */
+        public long getTime( int i ){
+            return times[i];
+        }
+
+        /**
+         * Returns the cost of the instance with the given number.
+         */
+        public long getCost( int i ){
+            return costs[i];
+        }
+
+        /**
+         * Returns the average time of an instance in nanoseconds.
+         */
+        public double getMeanTime(){
+            return mean( times );
+        }
+
+        /**
+         * Returns the average cost of an instance.
+         */
+        public double getMeanCost(){
+            return mean( costs );
+        }
+
+        /**
+         * Returns the time in nanoseconds that the given percent of the instances took
+         * at most (for example 95 for p95).
+         */
+        public long getTimePercentile( double p ){
+            return percentile( times, p );
+        }
+
+        /**
+         * Returns the cost that the given percent of the instances had at most.
+         */
+        public long getCostPercentile( double p ){
+            return percentile( costs, p );
+        }
+
+        /**
+         * Returns the average of the given values (0 if there are none).
+         */
+        private static double mean( long[] values ){
+            if( values.length == 0 ){
+                return 0;
+            }
+            double total = 0;
+            for( long v : values ){
+                total += v;
+            }
+            return total / values.length;
+        }
+
+        /**
+         * Returns the smallest of the given values that at least the given percent of
+         * them are not larger than (the nearest-rank percentile, 0 if there are none).
+         */
+        private static long percentile( long[] values, double p ){
+            if( values.length == 0 ){
+                return 0;
+            }
+            long[] sorted = values.clone();
+            Arrays.sort( sorted );
+            int rank = (int) Math.ceil( p / 100 * sorted.length );
+            return sorted[Math.min( Math.max( rank, 1 ), sorted.length ) - 1];
+        }
+
+        /**
+         * Saves the summary of the results to a String and returns it. Times are in
+         * milliseconds.
+         */
+        public String toString(){
+            return "Percent solved: " + String.format( "%.1f", getInstances() == 0 ? 0 : 100.0 * getSolved() / getInstances() ) + "%"
+                    + "\nTime (ms): average " + String.format( "%.3f", getMeanTime() / 1e6 )
+                    + ", p50 " + String.format( "%.3f", getTimePercentile( 50 ) / 1e6 )
+                    + ", p95 " + String.format( "%.3f", getTimePercentile( 95 ) / 1e6 )
+                    + ", p99 " + String.format( "%.3f", getTimePercentile( 99 ) / 1e6 )
+                    + "\nCost (boards generated): average " + String.format( "%.0f", getMeanCost() )
+                    + ", p50 " + getCostPercentile( 50 )
+                    + ", p95 " + getCostPercentile( 95 )
+                    + ", p99 " + getCostPercentile( 99 );
+        }
+    }
+
+    /**
+     * Runs an experiment and prints one line per instance in order:
+     *    <number> <solved (1 or 0)> <cost> <time in nanoseconds>
+     * followed by a summary with the averages and percentiles on standard error. The
+     * arguments are:
+     *    -n size:         number of queens (8 by default)
+     *    -c count:        number of instances (200 by default)
+     *    -s seed:         seed of the boards (the time by default; it is printed so
+     *                     the experiment can be run again)
+     *    -t threads:      number of threads (the number of cores by default)
+     *    -sideways moves: largest number of sideways moves in a row (0 by default)
+     *    -restarts count: largest number of random restarts (0 by default)
+     */
+    public static void run( String[] args ){
+        int size = 8;
+        int count = 200;
+        long seed = System.nanoTime();
+        int threads = Runtime.getRuntime().availableProcessors();
+        int sideways = 0;
+        int restarts = 0;
+        try {
+            for( int i = 0; i < args.length; i++ ){
+                if( args[i].equals( "-n" ) && i + 1 < args.length ){
+                    size = Integer.parseInt( args[++i] );
+                }
+                else if( args[i].equals( "-c" ) && i + 1 < args.length ){
+                    count = Integer.parseInt( args[++i] );
+                }
+                else if( args[i].equals( "-s" ) && i + 1 < args.length ){
+                    seed = Long.parseLong( args[++i] );
+                }
+                else if( args[i].equals( "-t" ) && i + 1 < args.length ){
+                    threads = Integer.parseInt( args[++i] );
+                }
+                else if( args[i].equals( "-sideways" ) && i + 1 < args.length ){
+                    sideways = Integer.parseInt( args[++i] );
+                }
+                else if( args[i].equals( "-restarts" ) && i + 1 < args.length ){
+                    restarts = Integer.parseInt( args[++i] );
+                }
+                else if( !args[i].equals( "-experiment" ) ){
+                    throw new IllegalArgumentException( "Unknown argument: " + args[i] );
+                }
+            }
+            if( size < 1 || count < 0 || threads < 1 ){
+                throw new IllegalArgumentException( "Invalid size, count, or number of threads" );
+            }
+        }
+        catch( IllegalArgumentException e ){
+            System.err.println( e.getMessage() );
+            return;
+        }
+
+        Experiment experiment = new Experiment( size, count, threads, seed );
+        experiment.setSidewaysMoves( sideways );
+        experiment.setRestarts( restarts );
+        long start = System.nanoTime();
+        Report report = experiment.run();
+        long end = System.nanoTime();
+
+        PrintWriter out = new PrintWriter( new BufferedWriter( new OutputStreamWriter( System.out ) ) );
+        for( int i = 0; i < count; i++ ){
+            out.println( i + " " + ( report.isSolved( i ) ? 1 : 0 ) + " " + report.getCost( i ) + " " + report.getTime( i ) );
+        }
+        out.flush();
+        System.err.println( "Ran " + count + " instances of " + size + " queens in " + ( end - start ) / 1000000
+                + " ms using " + threads + " threads with seed " + seed );
+        System.err.println( report );
+    }
+}
@@ -181,21 +181,9 @@ public class Genetic {
     }
 
     /**
-     * Returns a String containing the board:
-     *   - = empty space
-     *   Q = queen
+     * Returns a String containing the board (see Board.toString).
      */
     public String toString(){
-        String str = "";
-        for( int i = 0; i < getBoard().length; i++ ){
-            for( int j = 0; j < getBoard().length; j++ ){
-                if( i == getBoard()[j] ){
-                    str += ( "Q " );
-                }else
-                    str += ( "- " );
-            }
-            str += "\n";
-        }
-        return str;
+        return Board.toString( getBoard() );
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
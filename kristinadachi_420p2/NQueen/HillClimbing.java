@@ -1,69 +1,176 @@
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * This class is used to represent the Hill Climbing Algorithm to solve an N-Queens
  * problem. The board is represented by an array of integers (similar to the Board
- * class). It also includes a cost for running the algorithm.
+ * class). It also includes a cost for running the algorithm. The number of attacking
+ * pairs is kept by a ConflictCounter, so each successor board is scored from the change
+ * made by its move instead of being copied and counted again, which makes each step
+ * O(n^2) instead of O(n^4).
+ *
+ * By default the algorithm stops at the first board that has no better successor. It
+ * can also be allowed to make a number of sideways moves in a row (to a successor that
+ * is as good as the current board, chosen at random between the best ones) to get off a
+ * plateau, and to restart from a new random board a number of times. Restarts reuse the
+ * board array and the ConflictCounter, and the cost adds up over all of them.
+ *
+ * A shared stop flag can be given so that another thread can cancel the search (see
+ * PortfolioClimber). It is checked before every step, so solve returns false soon after
+ * the flag is set.
  */
 public class HillClimbing {
     private int[] board;
-    private int cost;
+    private long cost;
+    /* Largest number of sideways moves in a row (0 stops at the first plateau) */
+    private int maxSideways;
+    /* Largest number of random restarts */
+    private int maxRestarts;
+    /* Number of random restarts made by the last call of solve */
+    private int restarts;
+    /* Used to choose between equally good moves and to generate new boards */
+    private SplittableRandom rand;
+    /* Set by another thread when this search should stop (can be null) */
+    private AtomicBoolean stop;
 
     /* HillClimbing constructor */
     public HillClimbing( int[] b ){
+        this( b, new SplittableRandom() );
+    }
+
+    /* HillClimbing constructor that uses the given random number generator */
+    public HillClimbing( int[] b, SplittableRandom r ){
         board = b;
         cost = 0;
+        maxSideways = 0;
+        maxRestarts = 0;
+        restarts = 0;
+        rand = r;
+        stop = null;
+    }
+
+    /**
+     * Sets the largest number of sideways moves in a row.
+     */
+    public void setSidewaysMoves( int s ){
+        maxSideways = s;
+    }
+
+    /**
+     * Sets the largest number of random restarts.
+     */
+    public void setRestarts( int r ){
+        maxRestarts = r;
     }
 
-    public int getCost(){
+    /**
+     * Sets the flag that makes solve return false once it is set.
+     */
+    public void setStopFlag( AtomicBoolean s ){
+        stop = s;
+    }
+
+    /**
+     * Returns the number of random restarts made by the last call of solve.
+     */
+    public int getRestarts(){
+        return restarts;
+    }
+
+    /**
+     * Returns the number of successor boards considered so far (over all restarts).
+     */
+    public long getCost(){
         return cost;
     }
 
     /**
      * This method uses the Hill-Climbing Algorithm to solve a given N-Queen problem:
      *    [1] Finds all possible successor boards formed by moving any queen.
-     *    [2] Finds the number of pairs of attacking queens for the current board.
-     *    [3] If none of the possible boards are better than the current, the
-     *        algorithm quits.
+     *    [2] Finds the number of pairs of attacking queens for each of them from the
+     *        conflicts of the moved queen before and after the move, without copying
+     *        the board (see ConflictCounter).
+     *    [3] If none of the possible boards are better than the current (or as good,
+     *        once the sideways moves in a row are used up), the climb stops.
      *    [4] If a better board is found, the best board is updated and the algorithm
      *        repeats.
-     *  Note: It is possible for a solution not to be found.
+     *    [5] If the climb stopped without a solution and there are restarts left, the
+     *        board is filled with random rows and the algorithm starts over.
+     *  Note: It is possible for a solution not to be found. It is not found either if
+     *  the stop flag is set.
      */
     public boolean solve(){
-        ArrayList<int[]> allMoves = new ArrayList<>();
-        ArrayList<Integer> allAttackingPairs = new ArrayList<>();
-        int curAttackingPairs = findAttacking( board );
+        ConflictCounter counter = new ConflictCounter( board );
+        restarts = 0;
+        while( !climb( counter ) ){
+            if( restarts == maxRestarts || isStopped() ){
+                return false;
+            }
+            restarts++;
+            for( int i = 0; i < board.length; i++ ){
+                board[i] = rand.nextInt( board.length );
+            }
+            counter.reset();
+        }
+        return true;
+    }
 
-        while( true ){
-            allMoves.clear();
-            allAttackingPairs.clear();
+    /**
+     * Returns true if the stop flag was set.
+     */
+    private boolean isStopped(){
+        return stop != null && stop.get();
+    }
 
+    /**
+     * Climbs from the current board until it is solved (returns true), no successor is
+     * good enough, or the stop flag is set (returns false).
+     */
+    private boolean climb( ConflictCounter counter ){
+        long curAttackingPairs = counter.getAttacking();
+        int sideways = 0;
+
+        while( curAttackingPairs > 0 ){
+            if( isStopped() ){
+                return false;
+            }
+
+            /* The first move with the fewest attacking pairs is taken, or a random one
+             * of them if sideways moves are allowed (so a plateau is not crossed back
+             * and forth) */
+            boolean random = maxSideways > 0;
+            long min = Long.MAX_VALUE;
+            int bestCol = 0;
+            int bestRow = 0;
+            int ties = 0;
             for( int i = 0; i < board.length; i++ ){
-                for( int j = 0; j < board.length; j++ ){
-                    if( board[i] != j ){
-                        int[] nextMove = board.clone();
-                        nextMove[i] = j;
-
-                        allMoves.add( nextMove );
-                        allAttackingPairs.add( findAttacking( nextMove ) );
-                        cost++;
-                    }
+                /* Moving the queen in column i always removes the same attacking pairs,
+                 * so the best move in the column is to the row with the fewest conflicts */
+                int row = random ? counter.findBestRow( i, rand ) : counter.findBestRow( i );
+                long pairs = curAttackingPairs - counter.getConflicts( i ) + counter.getConflicts( i, row );
+                if( pairs < min ){
+                    min = pairs;
+                    bestCol = i;
+                    bestRow = row;
+                    ties = 1;
                 }
+                else if( random && pairs == min && rand.nextInt( ++ties ) == 0 ){
+                    bestCol = i;
+                    bestRow = row;
+                }
+                cost += board.length - 1;
             }
 
-            int min = Collections.min( allAttackingPairs );
-            if( min >= curAttackingPairs ){
+            if( min > curAttackingPairs || ( min == curAttackingPairs && sideways >= maxSideways ) ){
                 return false;
             }
             else{
-                board = allMoves.get( allAttackingPairs.indexOf( min ) ).clone();
+                sideways = min == curAttackingPairs ? sideways + 1 : 0;
+                counter.move( bestCol, bestRow );
                 curAttackingPairs = min;
-                if( min == 0 ){
-                    return true;
-                }
             }
         }
+        return true;
     }
 
     /**
@@ -90,21 +197,9 @@ public class HillClimbing {
     }
 
     /**
-     * Returns a String containing the board:
-     *   * = empty space
-     *   Q = queen
+     * Returns a String containing the board (see Board.toString).
      */
     public String toString(){
-        String str = "";
-        for( int i = 0; i < board.length; i++ ){
-            for( int j = 0; j < board.length; j++ ){
-                if( i == board[j] ){
-                    str += ( "Q " );
-                }else
-                    str += ( "- " );
-            }
-            str += "\n";
-        }
-        return str;
+        return Board.toString( board );
     }
 }
@@ -0,0 +1,212 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * This class is used to represent the Min-Conflicts Algorithm to solve an N-Queens
+ * problem with a very large n (a million queens takes seconds). The board is an array
+ * of integers where each number is the row of the queen in that column (like the Board
+ * and HillClimbing classes).
+ *
+ * The rows of the queens are always a permutation, so no two queens share a row and
+ * only the diagonals need to be counted. The number of queens on every diagonal and
+ * anti-diagonal is kept in two arrays, which is all the memory needed besides the
+ * board. The queens are first placed greedily: each column takes a random unused row
+ * that no earlier queen attacks, if one is found in a few tries, so only a few queens
+ * are attacked at the end. Then only those queens are repaired by swapping their rows
+ * with other queens when that lowers the number of attacking pairs. The cost is the
+ * number of swaps tried.
+ */
+public class MinConflicts {
+    /* Number of random rows tried for each column when placing the queens */
+    private static final int PLACE_TRIES = 32;
+    /* Number of random queens an attacked queen tries to swap with in each pass */
+    private static final int REPAIR_TRIES = 64;
+    /* Number of passes over the attacked queens without an improvement before the
+     * queens are placed again */
+    private static final int STALL_PASSES = 16;
+    /* Largest number of times the queens are placed again before giving up */
+    private static final int MAX_RESTARTS = 1000;
+
+    private int[] board;
+    /* Number of queens on each diagonal (row - column + n - 1) */
+    private int[] diagonals;
+    /* Number of queens on each anti-diagonal (row + column) */
+    private int[] antiDiagonals;
+    /* Columns of the queens that are attacked (only the first count are used) */
+    private int[] attacked;
+    /* Number of pairs of attacking queens */
+    private long attacking;
+    private long cost;
+    private SplittableRandom rand;
+
+    /* MinConflicts constructor for n queens, using the given seed */
+    public MinConflicts( int n, long seed ){
+        board = new int[n];
+        diagonals = new int[2 * n - 1];
+        antiDiagonals = new int[2 * n - 1];
+        attacked = new int[n];
+        attacking = 0;
+        cost = 0;
+        rand = new SplittableRandom( seed );
+    }
+
+    /**
+     * Returns the current board.
+     */
+    public int[] getBoard(){
+        return board;
+    }
+
+    /**
+     * Returns the number of swaps tried.
+     */
+    public long getCost(){
+        return cost;
+    }
+
+    /**
+     * Returns the number of pairs of attacking queens on the current board.
+     */
+    public long getAttacking(){
+        return attacking;
+    }
+
+    /**
+     * This method uses the Min-Conflicts Algorithm to solve the N-Queen problem:
+     *    [1] Places the queens greedily (see place).
+     *    [2] Finds the queens that are attacked.
+     *    [3] For each of them, tries swapping its row with the row of a random queen
+     *        and keeps the swap if there are fewer attacking pairs, until it is not
+     *        attacked or REPAIR_TRIES swaps were tried.
+     *    [4] Repeats from [2] until no queens are attacked. If many passes in a row do
+     *        not improve the board, it starts over from [1].
+     *  Note: There is no solution for 2 or 3 queens, so false is returned.
+     */
+    public boolean solve(){
+        int n = board.length;
+        if( n == 2 || n == 3 ){
+            return false;
+        }
+        for( int restart = 0; restart < MAX_RESTARTS; restart++ ){
+            place();
+            long best = attacking;
+            int stalled = 0;
+            while( attacking > 0 && stalled < STALL_PASSES ){
+                int count = findAttacked();
+                for( int k = 0; k < count && attacking > 0; k++ ){
+                    int i = attacked[k];
+                    for( int t = 0; t < REPAIR_TRIES && isAttacked( i ); t++ ){
+                        int j = rand.nextInt( n );
+                        if( j != i ){
+                            long before = attacking;
+                            swap( i, j );
+                            cost++;
+                            if( attacking >= before ){
+                                swap( i, j );
+                            }
+                        }
+                    }
+                }
+                if( attacking < best ){
+                    best = attacking;
+                    stalled = 0;
+                }
+                else{
+                    stalled++;
+                }
+            }
+            if( attacking == 0 ){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Places the queens greedily. The rows start as 0 to n - 1, and each column in turn
+     * swaps its row with a random later column until its queen is not attacked by the
+     * queens already placed, trying PLACE_TRIES times before taking the last row tried.
+     */
+    private void place(){
+        int n = board.length;
+        for( int i = 0; i < n; i++ ){
+            board[i] = i;
+        }
+        Arrays.fill( diagonals, 0 );
+        Arrays.fill( antiDiagonals, 0 );
+        attacking = 0;
+        for( int i = 0; i < n; i++ ){
+            for( int t = 0; t < PLACE_TRIES; t++ ){
+                int j = i + rand.nextInt( n - i );
+                int row = board[j];
+                board[j] = board[i];
+                board[i] = row;
+                if( diagonals[row - i + n - 1] == 0 && antiDiagonals[row + i] == 0 ){
+                    break;
+                }
+            }
+            attacking += diagonals[board[i] - i + n - 1]++;
+            attacking += antiDiagonals[board[i] + i]++;
+        }
+    }
+
+    /**
+     * Stores the columns of the queens that are attacked at the start of attacked and
+     * returns how many there are.
+     */
+    private int findAttacked(){
+        int n = board.length;
+        int count = 0;
+        for( int i = 0; i < n; i++ ){
+            if( isAttacked( i ) ){
+                attacked[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns true if another queen is on a diagonal of the queen in the given column.
+     */
+    private boolean isAttacked( int col ){
+        int row = board[col];
+        return diagonals[row - col + board.length - 1] > 1 || antiDiagonals[row + col] > 1;
+    }
+
+    /**
+     * Swaps the rows of the queens in the given columns and updates the counts.
+     */
+    private void swap( int i, int j ){
+        int ri = board[i];
+        int rj = board[j];
+        remove( i, ri );
+        remove( j, rj );
+        add( i, rj );
+        add( j, ri );
+        board[i] = rj;
+        board[j] = ri;
+    }
+
+    /**
+     * Takes the queen in the given column and row off its diagonals.
+     */
+    private void remove( int col, int row ){
+        attacking -= --diagonals[row - col + board.length - 1];
+        attacking -= --antiDiagonals[row + col];
+    }
+
+    /**
+     * Puts a queen in the given column and row on its diagonals.
+     */
+    private void add( int col, int row ){
+        attacking += diagonals[row - col + board.length - 1]++;
+        attacking += antiDiagonals[row + col]++;
+    }
+
+    /**
+     * Returns a String containing the board (see Board.toString).
+     */
+    public String toString(){
+        return Board.toString( board );
+    }
+}
@@ -1,8 +1,14 @@
 /**
- * This class contains the main method and starts the program.
+ * This class contains the main method and starts the program. With the argument
+ * -experiment, many hill climbing instances are run without any user interaction (see
+ * Experiment).
  */
 public class NQueen {
     public static void main( String args[] ){
+        if( args.length > 0 && args[0].equals( "-experiment" ) ){
+            Experiment.run( args );
+            return;
+        }
         UI ui = new UI();
         ui.start();
     }
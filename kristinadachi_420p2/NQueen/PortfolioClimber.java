@@ -0,0 +1,139 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class solves one N-Queens problem by racing several independent hill climbing
+ * searches (see HillClimbing) on a ForkJoinPool, one for each thread. Each search starts
+ * from its own random board, uses sideways moves and random restarts, and has its own
+ * random number generator split from the seed, so the searches never share state. The
+ * first search to reach a board without attacking pairs wins: it sets the stop flag
+ * shared by all the searches, and the others return at their next step. The solution
+ * is the board of the winner, and the cost is the number of successor boards considered
+ * by all the searches together.
+ *
+ * Hill climbing with restarts finds a solution after a number of tries that varies a
+ * lot, so running several of them at once shortens the time until the first solution
+ * on a machine with several cores.
+ */
+public class PortfolioClimber {
+    private int size;
+    private int threads;
+    private int maxSideways;
+    /* Largest number of random restarts of each search */
+    private int maxRestarts;
+    private SplittableRandom rand;
+    /* Board of the search that won (null if no search found a solution) */
+    private int[] board;
+    private long cost;
+    /* Number of random restarts made by all the searches together */
+    private long restarts;
+
+    /* PortfolioClimber constructor for n queens, using the given number of threads and
+     * seed */
+    public PortfolioClimber( int n, int t, long seed ){
+        size = n;
+        threads = t;
+        maxSideways = 0;
+        maxRestarts = 0;
+        rand = new SplittableRandom( seed );
+        board = null;
+        cost = 0;
+        restarts = 0;
+    }
+
+    /**
+     * Sets the largest number of sideways moves in a row of each search.
+     */
+    public void setSidewaysMoves( int s ){
+        maxSideways = s;
+    }
+
+    /**
+     * Sets the largest number of random restarts of each search.
+     */
+    public void setRestarts( int r ){
+        maxRestarts = r;
+    }
+
+    /**
+     * Returns the solution found by the last call of solve (null if there is none).
+     */
+    public int[] getBoard(){
+        return board;
+    }
+
+    /**
+     * Returns the number of successor boards considered by all the searches.
+     */
+    public long getCost(){
+        return cost;
+    }
+
+    /**
+     * Returns the number of random restarts made by all the searches.
+     */
+    public long getRestarts(){
+        return restarts;
+    }
+
+    /**
+     * Runs one search for each thread and returns true once one of them finds a
+     * solution, after the others have stopped. Returns false if every search ran out of
+     * restarts without a solution.
+     */
+    public boolean solve(){
+        AtomicBoolean stop = new AtomicBoolean( false );
+        AtomicReference<int[]> winner = new AtomicReference<>();
+        List<HillClimbing> searches = new ArrayList<>();
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool( threads );
+        try {
+            for( int t = 0; t < threads; t++ ){
+                /* Each search has its own generator, split before any of them starts */
+                SplittableRandom r = rand.split();
+                int[] b = new int[size];
+                for( int i = 0; i < size; i++ ){
+                    b[i] = r.nextInt( size );
+                }
+                HillClimbing hc = new HillClimbing( b, r );
+                hc.setSidewaysMoves( maxSideways );
+                hc.setRestarts( maxRestarts );
+                hc.setStopFlag( stop );
+                searches.add( hc );
+                tasks.add( pool.submit( () -> {
+                    if( hc.solve() && winner.compareAndSet( null, b ) ){
+                        stop.set( true );
+                    }
+                } ) );
+            }
+            for( ForkJoinTask<?> task : tasks ){
+                task.join();
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+
+        board = winner.get();
+        cost = 0;
+        restarts = 0;
+        for( HillClimbing hc : searches ){
+            cost += hc.getCost();
+            restarts += hc.getRestarts();
+        }
+        return board != null;
+    }
+
+    /**
+     * Returns a String containing the solution (see Board.toString), or an empty String
+     * if there is none.
+     */
+    public String toString(){
+        return board == null ? "" : Board.toString( board );
+    }
+}
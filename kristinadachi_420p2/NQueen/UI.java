@@ -1,23 +1,35 @@
 import java.util.Scanner;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.InputMismatchException;
 import java.util.ArrayList;
 
 /**
  * This class handles all the UI of this program. The user is able to choose which
  * algorithm they would like to use to solve an n-queen problem (steepest-ascent hill
- * climbing or genetic). The user decides on the n value as well as the population
- * size for the genetic algorithm. The time and cost to run either algorithm is displayed
- * as output as well as the solution.
+ * climbing, genetic, or min-conflicts). The user decides on the n value as well as the
+ * population size for the genetic algorithm. The time and cost to run either algorithm
+ * is displayed as output as well as the solution.
  */
 public class UI {
+    /* Largest board that is printed */
+    private static final int PRINT_LIMIT = 64;
+    /* Largest number of sideways moves in a row and of random restarts used by the
+     * improved hill climbing test */
+    private static final int SIDEWAYS = 100;
+    private static final int RESTARTS = 100;
+    /* Number of instances run by a hill climbing test */
+    private static final int INSTANCES = 200;
+    /* Number of threads used to race hill climbing searches and to run tests (one for
+     * each core) */
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
     private Scanner input;
-    private Random rand;
+    private SplittableRandom rand;
 
     /* UI constructor */
     public UI(){
         input = new Scanner( System.in );
-        rand = new Random();
+        rand = new SplittableRandom();
         System.out.println("Welcome to N-Queen Problem Generator!");
         printMenu();
     }
@@ -30,7 +42,8 @@ public class UI {
         System.out.println(" What algorithm would you like to use?");
         System.out.println("    [1] Steepest-Ascent Hill Climbing");
         System.out.println("    [2] Genetic");
-        System.out.println("    [3] Quit");
+        System.out.println("    [3] Min-Conflicts (large n)");
+        System.out.println("    [4] Quit");
         System.out.println("---------------------------------------");
     }
 
@@ -42,19 +55,21 @@ public class UI {
         System.out.println(" What would you like to do?");
         System.out.println("    [1] Generate 1 problem");
         System.out.println("    [2] Test 200 problems");
-        System.out.println("    [3] Go back");
+        System.out.println("    [3] Test 200 problems (sideways moves and restarts)");
+        System.out.println("    [4] Generate 1 problem (race on all cores)");
+        System.out.println("    [5] Go back");
         System.out.println("----------------------------");
     }
 
     /**
      * Reads the user input and performs a certain action based on that input. User has
-     * the choice of using the steepest-ascent hill climbing algorithm or the genetic
-     * algorithm. They can also quit the program.
+     * the choice of using the steepest-ascent hill climbing algorithm, the genetic
+     * algorithm, or the min-conflicts algorithm. They can also quit the program.
      */
     public void start(){
         String choice = "0";
         try{
-            while( !choice.equals( "3" ) ){
+            while( !choice.equals( "4" ) ){
                 System.out.print( "> " );
                 choice = input.nextLine();
                 switch( choice ){
@@ -72,6 +87,11 @@ public class UI {
                         input.nextLine();
                         break;
                     case "3":
+                        solveMC( setupN() );
+                        printMenu();
+                        input.nextLine();
+                        break;
+                    case "4":
                         input.close();
                         System.exit(0 );
                     default:
@@ -85,8 +105,10 @@ public class UI {
 
     /**
      * If the user chose to use the hill climbing algorithm, they have the choice of
-     * attempting to solve one n-queen progblem or 200 instances of the n-queen problem.
-     * They may also go back to the main menu.
+     * attempting to solve one n-queen progblem or 200 instances of the n-queen problem
+     * (with plain steepest ascent, or allowing sideways moves and random restarts), or
+     * racing a hill climbing search on every core to solve one problem. They may also go
+     * back to the main menu.
      */
     public void hillClimbing(){
         try {
@@ -103,10 +125,20 @@ public class UI {
                         return;
                     case "2":
                         int size2 = setupN();
-                        printResults(test(size2));
+                        printResults(test(size2, 0, 0));
                         input.nextLine();
                         return;
                     case "3":
+                        int size3 = setupN();
+                        printResults(test(size3, SIDEWAYS, RESTARTS));
+                        input.nextLine();
+                        return;
+                    case "4":
+                        int size4 = setupN();
+                        solvePortfolio(size4);
+                        input.nextLine();
+                        return;
+                    case "5":
                         return;
                     default:
                         System.out.println("Invalid input.");
@@ -148,6 +180,68 @@ public class UI {
         }
     }
 
+    /**
+     * Attempts to solve an n-queen problem by racing one hill climbing search with
+     * sideways moves and random restarts on each core (see PortfolioClimber). It prints
+     * the solution of the first search to find one, the time, and the cost of all the
+     * searches together.
+     */
+    public void solvePortfolio( int size ){
+        PortfolioClimber pc = new PortfolioClimber( size, THREADS, rand.nextLong() );
+        pc.setSidewaysMoves( SIDEWAYS );
+        pc.setRestarts( RESTARTS );
+
+        long start = System.currentTimeMillis();
+        boolean solved = pc.solve();
+        long end = System.currentTimeMillis();
+
+        if( solved ){
+            System.out.println("\n----------");
+            System.out.println(" Solution");
+            System.out.println("----------");
+            if( size <= PRINT_LIMIT ){
+                System.out.println( pc.toString() );
+            }
+            else{
+                System.out.println( "(The board is too large to print.)\n" );
+            }
+            System.out.println( "Time: " + (end - start) + " ms");
+            System.out.println( "Searches: " + THREADS + " (" + pc.getRestarts() + " restarts)" );
+            System.out.println( "Cost (boards generated): " + pc.getCost() );
+        } else {
+            System.out.println("Solution could not be found.");
+        }
+    }
+
+    /**
+     * Solves an n-queen problem by using the min-conflicts algorithm, which can handle
+     * millions of queens. The solution is printed if the board is small enough, along
+     * with the time and cost of running the algorithm.
+     */
+    public void solveMC( int size ){
+        MinConflicts mc = new MinConflicts( size, rand.nextLong() );
+
+        long start = System.currentTimeMillis();
+        boolean solved = mc.solve();
+        long end = System.currentTimeMillis();
+
+        if( solved ){
+            System.out.println("\n----------");
+            System.out.println(" Solution");
+            System.out.println("----------");
+            if( size <= PRINT_LIMIT ){
+                System.out.println( mc.toString() );
+            }
+            else{
+                System.out.println( "(The board is too large to print.)\n" );
+            }
+            System.out.println( "Time: " + (end - start) + " ms");
+            System.out.println( "Cost (swaps tried): " + mc.getCost() );
+        } else {
+            System.out.println("Solution could not be found.");
+        }
+    }
+
     /**
      * Attempts to solve an n-queen problem by using the genetic algorithm. The user
      * must enter the population size (k). It prints the solution as well as the time
@@ -174,34 +268,15 @@ public class UI {
     }
 
     /**
-     * Used when testing 200 instances of the n-queen problem. It returns the number of
-     * solved instances, the total time to run all 200 instances, and the cost of running
-     * all 200 instances.
+     * Used when testing 200 instances of the n-queen problem. The instances run in
+     * parallel on every core (see Experiment), each of them making up to the given
+     * number of sideways moves in a row and random restarts (see HillClimbing).
      */
-    public int[] test( int size ){
-        int solved = 0;
-        int cost = 0;
-        int time = 0;
-        int[] results = new int[3];
-
-        for( int i = 0; i < 200; i++ ) {
-            int[] board = generateBoard(size);
-            HillClimbing hc = new HillClimbing(board);
-
-            long start = System.currentTimeMillis();
-            if (hc.solve()) {
-                solved++;
-            }
-            long end = System.currentTimeMillis();
-
-            time += (end - start);
-            cost += hc.getCost();
-        }
-
-        results[0] = solved;
-        results[1] = time;
-        results[2] = cost;
-        return results;
+    public Experiment.Report test( int size, int sideways, int restarts ){
+        Experiment experiment = new Experiment( size, INSTANCES, THREADS, rand.nextLong() );
+        experiment.setSidewaysMoves( sideways );
+        experiment.setRestarts( restarts );
+        return experiment.run();
     }
 
     /**
@@ -244,16 +319,14 @@ public class UI {
 
     /**
      * Prints the results of testing 200 instances of the n-queen problem and using the hill
-     * climbing algorithm. The percentage of instances solved, the average time to solve each
-     * board, and the average cost to solve each board are calculated and printed.
+     * climbing algorithm: the percentage of instances solved, and the average and
+     * percentiles of the time and cost of each instance.
      */
-    public void printResults( int[] results ){
+    public void printResults( Experiment.Report results ){
         System.out.println( "\n---------"  );
         System.out.println( " Results" );
         System.out.println( "---------"  );
-        System.out.println("Percent solved: " + results[0] / 2 + "%");
-        System.out.println("Average time to solve a board: " + results[1] / 200.0 + " ms");
-        System.out.println("Average cost to solve a board: " + results[2] / 200 + " boards generated");
+        System.out.println( results );
     }
 
     /**